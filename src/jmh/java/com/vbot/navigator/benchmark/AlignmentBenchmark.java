@@ -0,0 +1,58 @@
+package com.vbot.navigator.benchmark;
+
+import com.vbot.navigator.model.AlignmentOptions;
+import com.vbot.navigator.model.ApiOperation;
+import com.vbot.navigator.model.OperationAlignment;
+import com.vbot.navigator.model.ScorerMode;
+import com.vbot.navigator.service.BianAlignmentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlignmentBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int operations;
+
+    @Param({"5", "100", "500"})
+    public int domains;
+
+    @Param({"KEYWORD", "BITSET"})
+    public ScorerMode scorer;
+
+    @Param({"0", "2"})
+    public int topAreas;
+
+    private BianAlignmentService service;
+    private List<ApiOperation> input;
+    private AlignmentOptions options;
+
+    @Setup
+    public void setUp() {
+        service = new BianAlignmentService(BenchmarkFixtures.catalogue(domains));
+        input = BenchmarkFixtures.operations(operations);
+        options = new AlignmentOptions(1, 1, scorer, topAreas, false);
+    }
+
+    @Benchmark
+    public List<OperationAlignment> align() {
+        return service.align(input, options);
+    }
+}
@@ -0,0 +1,75 @@
+package com.vbot.navigator.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vbot.navigator.service.BianAlignmentService;
+import com.vbot.navigator.service.BinaryAlignmentFile;
+import com.vbot.navigator.service.GenerationPlanWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads a written report and sums the scores of every operation, touching each path, from
+ * {@code alignment.json} and from {@code alignment.bin}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlignmentReadBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int operations;
+
+    @Param({"100"})
+    public int domains;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Path jsonFile;
+    private Path binaryFile;
+
+    @Setup
+    public void setUp() {
+        BianAlignmentService service = new BianAlignmentService(BenchmarkFixtures.catalogue(domains));
+        Path outputDir = BenchmarkFixtures.tempDirectory("navigator-read");
+        new GenerationPlanWriter().write(outputDir, outputDir.resolve("spec.json"),
+                BenchmarkFixtures.alignedByDomain(service, operations), true);
+        jsonFile = outputDir.resolve("alignment.json");
+        binaryFile = outputDir.resolve("alignment.bin");
+    }
+
+    @Benchmark
+    public double json() throws IOException {
+        double total = 0;
+        for (JsonNode domain : mapper.readTree(jsonFile.toFile()).get("domains")) {
+            for (JsonNode op : domain.get("operations")) {
+                total += op.get("score").asDouble() + op.get("path").asText().length();
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double binary() throws IOException {
+        double total = 0;
+        for (BinaryAlignmentFile.Operation op : BinaryAlignmentFile.open(binaryFile).operations()) {
+            total += op.score() + op.path().length();
+        }
+        return total;
+    }
+}
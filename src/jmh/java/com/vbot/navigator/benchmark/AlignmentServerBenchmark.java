@@ -0,0 +1,90 @@
+package com.vbot.navigator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.vbot.navigator.config.BianDomainCatalogue;
+import com.vbot.navigator.model.AlignmentOptions;
+import com.vbot.navigator.service.AlignmentServer;
+import com.vbot.navigator.service.BianAlignmentService;
+import com.vbot.navigator.service.OpenApiSpecReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Round trip of single-operation requests to {@code POST /align/operation} on a local server. Sample
+ * mode reports latency percentiles, p99 in particular. Raise the number of concurrent clients with
+ * {@code -t}; beyond the number of cores this measures queueing rather than request latency.
+ * <p>
+ * The client runs in the benchmark JVM. On a single core it competes with the server for the CPU,
+ * and its allocations add to the GC pauses, so the tail there mostly measures the HTTP client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlignmentServerBenchmark {
+
+    @Param({"100", "500"})
+    public int domains;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private HttpServer server;
+    private HttpClient client;
+    private URI endpoint;
+    private List<String> bodies;
+
+    @Setup
+    public void setUp() throws IOException {
+        BianDomainCatalogue catalogue = BenchmarkFixtures.catalogue(domains);
+        server = new AlignmentServer(new OpenApiSpecReader(), new BianAlignmentService(catalogue), catalogue)
+                .start(new InetSocketAddress("127.0.0.1", 0), AlignmentOptions.defaults());
+        endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/align/operation");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ObjectMapper mapper = new ObjectMapper();
+        bodies = new ArrayList<>();
+        for (Map<String, Object> fields : BenchmarkFixtures.operationFields(1000)) {
+            bodies.add(mapper.writeValueAsString(fields));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+        client.close();
+    }
+
+    @Benchmark
+    public int alignOperation() throws IOException, InterruptedException {
+        String body = bodies.get(Math.floorMod(next.getAndIncrement(), bodies.size()));
+        HttpRequest request = HttpRequest.newBuilder(endpoint).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
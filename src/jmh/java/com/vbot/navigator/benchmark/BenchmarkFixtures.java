@@ -0,0 +1,206 @@
+package com.vbot.navigator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.vbot.navigator.config.BianDomainCatalogue;
+import com.vbot.navigator.config.CatalogueSnapshot;
+import com.vbot.navigator.model.AlignmentOptions;
+import com.vbot.navigator.model.ApiOperation;
+import com.vbot.navigator.model.DomainAlignment;
+import com.vbot.navigator.service.AlignmentCache;
+import com.vbot.navigator.service.BianAlignmentService;
+import com.vbot.navigator.service.NavigatorService;
+import com.vbot.navigator.util.TokenDictionary;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic inputs shared by the benchmarks. Catalogue keywords and operation text are
+ * drawn from one generated vocabulary so that alignments produce a realistic mix of exact hits, near
+ * misses and unmapped operations.
+ */
+final class BenchmarkFixtures {
+
+    private static final String[] SYLLABLES = {
+            "ac", "count", "pay", "ment", "loan", "card", "cus", "tom", "er", "bal", "ance", "led", "ger",
+            "trans", "fer", "set", "tle", "mort", "gage", "cred", "it", "par", "ty", "pro", "file", "is",
+            "su", "dis", "pute", "re", "mit", "fee", "rate", "off", "branch", "state", "lim", "col", "lat"
+    };
+    private static final String[] METHODS = {"get", "post", "put", "patch", "delete"};
+    private static final int BUSINESS_AREAS = 8;
+    private static final List<String> VOCABULARY = vocabulary(3000);
+
+    private BenchmarkFixtures() {
+    }
+
+    static BianDomainCatalogue catalogue(int domainCount) {
+        return new BianDomainCatalogue(new ByteArrayResource(catalogueYaml(domainCount, 8), "benchmark-domains.yml"));
+    }
+
+    /**
+     * A catalogue of {@code domainCount} domains with {@code keywordsPerDomain} keywords each, as YAML.
+     * The domains are split into up to {@value #BUSINESS_AREAS} business areas in catalogue order.
+     */
+    static byte[] catalogueYaml(int domainCount, int keywordsPerDomain) {
+        Random random = new Random(domainCount);
+        List<Map<String, Object>> domains = new ArrayList<>();
+        for (int i = 0; i < domainCount; i++) {
+            Map<String, Object> domain = new LinkedHashMap<>();
+            domain.put("code", "D" + i);
+            domain.put("name", capitalize(word(random)) + " " + capitalize(word(random)));
+            domain.put("businessArea", "Area " + i * BUSINESS_AREAS / domainCount);
+            List<String> keywords = new ArrayList<>();
+            for (int k = 0; k < keywordsPerDomain; k++) {
+                keywords.add(word(random));
+            }
+            domain.put("keywords", keywords);
+            domain.put("capabilities", List.of("Manage " + word(random), "Report on " + word(random)));
+            domains.add(domain);
+        }
+        try {
+            return new ObjectMapper(new YAMLFactory()).writeValueAsBytes(Map.of("domains", domains));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static List<ApiOperation> operations(int count) {
+        List<ApiOperation> operations = new ArrayList<>(count);
+        TokenDictionary dictionary = new TokenDictionary();
+        for (Map<String, Object> fields : operationFields(count)) {
+            @SuppressWarnings("unchecked")
+            List<String> tags = (List<String>) fields.get("tags");
+            operations.add(new ApiOperation(
+                    (String) fields.get("path"),
+                    (String) fields.get("httpMethod"),
+                    (String) fields.get("operationId"),
+                    (String) fields.get("summary"),
+                    (String) fields.get("description"),
+                    tags,
+                    dictionary));
+        }
+        return operations;
+    }
+
+    /**
+     * The raw fields of {@link #operations(int)}: {@code path}, {@code httpMethod}, {@code operationId},
+     * {@code summary}, {@code description} and {@code tags}. {@link ApiOperation} keeps the description
+     * only in encoded form, so anything that writes operations back out starts from these.
+     */
+    static List<Map<String, Object>> operationFields(int count) {
+        Random random = new Random(count);
+        List<Map<String, Object>> operations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String path = "/" + word(random) + "s/{id}/" + word(random) + "/" + i;
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("path", path);
+            fields.put("httpMethod", METHODS[random.nextInt(METHODS.length)].toUpperCase());
+            fields.put("operationId", "op" + capitalize(word(random)) + i);
+            fields.put("summary", capitalize(words(random, 5)));
+            fields.put("description", words(random, 25));
+            fields.put("tags", List.of(capitalize(word(random))));
+            operations.add(fields);
+        }
+        return operations;
+    }
+
+    /**
+     * Writes the first {@code count} operations as an OpenAPI 3 JSON document and returns its path.
+     */
+    static Path writeSpec(int count, Path directory) {
+        Map<String, Object> paths = new LinkedHashMap<>();
+        for (Map<String, Object> fields : operationFields(count)) {
+            Map<String, Object> node = new LinkedHashMap<>();
+            node.put("operationId", fields.get("operationId"));
+            node.put("summary", fields.get("summary"));
+            node.put("description", fields.get("description"));
+            node.put("tags", fields.get("tags"));
+            node.put("responses", Map.of("200", Map.of("description", "ok")));
+            paths.put((String) fields.get("path"), Map.of(((String) fields.get("httpMethod")).toLowerCase(), node));
+        }
+        Map<String, Object> spec = new LinkedHashMap<>();
+        spec.put("openapi", "3.0.1");
+        spec.put("info", Map.of("title", "benchmark", "version", "1"));
+        spec.put("paths", paths);
+        try {
+            Path file = directory.resolve("spec-" + count + ".json");
+            new ObjectMapper().writeValue(file.toFile(), spec);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Aligns {@code count} generated operations and groups them by domain in catalogue order, as a
+     * run does before writing its reports.
+     */
+    static List<DomainAlignment> alignedByDomain(BianAlignmentService service, int count) {
+        CatalogueSnapshot snapshot = service.snapshotFor(AlignmentCache.disabled());
+        return NavigatorService.groupByDomain(snapshot,
+                service.align(snapshot, operations(count), AlignmentOptions.defaults()));
+    }
+
+    static Path tempDirectory(String prefix) {
+        try {
+            return Files.createTempDirectory(prefix);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static List<String> names(int count) {
+        Random random = new Random(count);
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(switch (i % 3) {
+                case 0 -> capitalize(word(random)) + " " + capitalize(word(random)) + " Management";
+                case 1 -> "get" + capitalize(word(random)) + "By" + capitalize(word(random));
+                default -> " Crédit-" + word(random) + "  é " + word(random) + "_" + i;
+            });
+        }
+        return names;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(word(random));
+        }
+        return builder.toString();
+    }
+
+    private static String word(Random random) {
+        return VOCABULARY.get(random.nextInt(VOCABULARY.size()));
+    }
+
+    private static List<String> vocabulary(int size) {
+        Random random = new Random(42);
+        List<String> words = new ArrayList<>(size);
+        while (words.size() < size) {
+            String word = SYLLABLES[random.nextInt(SYLLABLES.length)]
+                    + SYLLABLES[random.nextInt(SYLLABLES.length)]
+                    + (random.nextBoolean() ? SYLLABLES[random.nextInt(SYLLABLES.length)] : "");
+            if (!words.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+}
@@ -0,0 +1,61 @@
+package com.vbot.navigator.benchmark;
+
+import com.vbot.navigator.config.BianDomainCatalogue;
+import com.vbot.navigator.config.CatalogueSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads a catalogue file from scratch, from the YAML alone (parse and compile the matcher) and with a
+ * precompiled snapshot next to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogueLoadBenchmark {
+
+    @Param({"100", "1000"})
+    public int domains;
+
+    @Param({"8", "64"})
+    public int keywords;
+
+    private Path yamlOnly;
+    private Path precompiled;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] yaml = BenchmarkFixtures.catalogueYaml(domains, keywords);
+        yamlOnly = Files.write(BenchmarkFixtures.tempDirectory("catalogue-yaml").resolve("domains.yml"), yaml);
+        precompiled = Files.write(BenchmarkFixtures.tempDirectory("catalogue-snapshot").resolve("domains.yml"), yaml);
+        new BianDomainCatalogue(new FileSystemResource(precompiled)).compile(null);
+    }
+
+    @Benchmark
+    public CatalogueSnapshot yaml() {
+        return new BianDomainCatalogue(new FileSystemResource(yamlOnly)).snapshot();
+    }
+
+    @Benchmark
+    public CatalogueSnapshot snapshot() {
+        return new BianDomainCatalogue(new FileSystemResource(precompiled)).snapshot();
+    }
+}
@@ -0,0 +1,92 @@
+package com.vbot.navigator.benchmark;
+
+import com.vbot.navigator.util.NameRegistry;
+import com.vbot.navigator.util.NameUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameUtilsBenchmark {
+
+    private static final int NAMES = 1000;
+
+    private List<String> names;
+
+    @Setup
+    public void setUp() {
+        names = BenchmarkFixtures.names(NAMES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES)
+    public void safeCode(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(NameUtils.safeCode(name));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES)
+    public void slug(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(NameUtils.slug(name));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES)
+    public void packageName(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(NameUtils.packageName("com.generated", name));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES)
+    public void className(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(NameUtils.className(name));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES)
+    public void methodName(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(NameUtils.methodName(name));
+        }
+    }
+
+    /**
+     * The scaffolder's pattern: one registry per run, each name derived several times.
+     */
+    @Benchmark
+    @OperationsPerInvocation(NAMES)
+    public void registry(Blackhole blackhole) {
+        NameRegistry registry = new NameRegistry();
+        for (int pass = 0; pass < 3; pass++) {
+            for (String name : names) {
+                blackhole.consume(registry.slug(name));
+                blackhole.consume(registry.className(name));
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.vbot.navigator.benchmark;
+
+import com.vbot.navigator.model.ApiOperation;
+import com.vbot.navigator.util.TokenDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building an {@link ApiOperation}, which tokenizes its text into the run's dictionary (a
+ * fresh one per invocation, as in a run), and of decoding the searchable text back out of the tokens.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperationTextBenchmark {
+
+    private static final int OPERATIONS = 1000;
+
+    private List<Map<String, Object>> fields;
+    private List<ApiOperation> input;
+
+    @Setup
+    public void setUp() {
+        fields = BenchmarkFixtures.operationFields(OPERATIONS);
+        input = BenchmarkFixtures.operations(OPERATIONS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    @SuppressWarnings("unchecked")
+    public void encode(Blackhole blackhole) {
+        TokenDictionary dictionary = new TokenDictionary();
+        for (Map<String, Object> operation : fields) {
+            blackhole.consume(new ApiOperation(
+                    (String) operation.get("path"),
+                    (String) operation.get("httpMethod"),
+                    (String) operation.get("operationId"),
+                    (String) operation.get("summary"),
+                    (String) operation.get("description"),
+                    (List<String>) operation.get("tags"),
+                    dictionary));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void searchableText(Blackhole blackhole) {
+        for (ApiOperation operation : input) {
+            blackhole.consume(operation.searchableText());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.vbot.navigator.benchmark;
+
+import com.vbot.navigator.model.DomainAlignment;
+import com.vbot.navigator.service.BianAlignmentService;
+import com.vbot.navigator.service.GenerationPlanWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanWriterBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int operations;
+
+    @Param({"5", "100", "500"})
+    public int domains;
+
+    private final GenerationPlanWriter writer = new GenerationPlanWriter();
+    private List<DomainAlignment> alignments;
+    private Path outputDir;
+    private Path specPath;
+
+    @Setup
+    public void setUp() {
+        BianAlignmentService service = new BianAlignmentService(BenchmarkFixtures.catalogue(domains));
+        alignments = BenchmarkFixtures.alignedByDomain(service, operations);
+        outputDir = BenchmarkFixtures.tempDirectory("navigator-plan");
+        specPath = outputDir.resolve("spec.json");
+    }
+
+    @Benchmark
+    public void write() {
+        writer.write(outputDir, specPath, alignments);
+    }
+}
@@ -0,0 +1,49 @@
+package com.vbot.navigator.benchmark;
+
+import com.vbot.navigator.model.ApiOperation;
+import com.vbot.navigator.model.SpecReaderMode;
+import com.vbot.navigator.service.OpenApiSpecReader;
+import com.vbot.navigator.util.TokenDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpecReaderBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int operations;
+
+    @Param({"SWAGGER", "STREAMING"})
+    public SpecReaderMode mode;
+
+    private final OpenApiSpecReader reader = new OpenApiSpecReader();
+    private Path spec;
+
+    @Setup
+    public void setUp() {
+        spec = BenchmarkFixtures.writeSpec(operations, BenchmarkFixtures.tempDirectory("navigator-spec"));
+    }
+
+    @Benchmark
+    public List<ApiOperation> readOperations() {
+        return reader.readOperations(spec, mode, new TokenDictionary());
+    }
+}
@@ -7,6 +7,10 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class ModernisationNavigatorApplication {
 
     public static void main(String[] args) {
+        if (NavigatorLauncher.isRequested(args)) {
+            NavigatorLauncher.run(args);
+            return;
+        }
         SpringApplication.run(ModernisationNavigatorApplication.class, args);
     }
 }
@@ -0,0 +1,92 @@
+package com.vbot.navigator;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import com.vbot.navigator.cli.NavigatorRunner;
+import com.vbot.navigator.config.BianDomainCatalogue;
+import com.vbot.navigator.service.AlignmentServer;
+import com.vbot.navigator.service.BianAlignmentService;
+import com.vbot.navigator.service.GenerationPlanWriter;
+import com.vbot.navigator.service.MicroserviceScaffolder;
+import com.vbot.navigator.service.NavigatorService;
+import com.vbot.navigator.service.OpenApiSpecReader;
+import com.vbot.navigator.service.PortfolioService;
+import com.vbot.navigator.service.SpecWatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.util.List;
+
+/**
+ * Runs the CLI without a Spring application context: the same components are constructed directly
+ * and handed the parsed arguments, skipping component scanning, auto-configuration and Spring Boot's
+ * logging setup. Selected with {@code --lean}; every other option behaves as in the Spring launch.
+ * <p>
+ * Properties are only read from the command line ({@code --catalogue=}, {@code --logging.level.*=});
+ * console logging at INFO comes from {@code navigator-lean-logback.xml}.
+ */
+final class NavigatorLauncher {
+
+    static final String LEAN_OPTION = "--lean";
+    private static final String LOGGING_CONFIG = "navigator-lean-logback.xml";
+    private static final String LOGGING_LEVEL_PREFIX = "logging.level.";
+
+    private NavigatorLauncher() {
+    }
+
+    static boolean isRequested(String[] args) {
+        for (String arg : args) {
+            if (arg.equals(LEAN_OPTION)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static void run(String[] args) {
+        // Must be set before the first logger is created.
+        if (System.getProperty("logback.configurationFile") == null) {
+            System.setProperty("logback.configurationFile", LOGGING_CONFIG);
+        }
+        ApplicationArguments arguments = new DefaultApplicationArguments(args);
+        applyLoggingLevels(arguments);
+        Logger log = LoggerFactory.getLogger(NavigatorLauncher.class);
+        try {
+            runner(arguments).run(arguments);
+        } catch (Exception e) {
+            log.error("Navigator run failed", e);
+            System.exit(1);
+        }
+    }
+
+    private static NavigatorRunner runner(ApplicationArguments arguments) {
+        List<String> cataloguePath = arguments.getOptionValues("catalogue");
+        BianDomainCatalogue catalogue = new BianDomainCatalogue(cataloguePath == null || cataloguePath.isEmpty()
+                ? System.getProperty("catalogue", "")
+                : cataloguePath.get(0));
+        OpenApiSpecReader specReader = new OpenApiSpecReader();
+        BianAlignmentService alignmentService = new BianAlignmentService(catalogue);
+        GenerationPlanWriter planWriter = new GenerationPlanWriter();
+        NavigatorService navigatorService = new NavigatorService(specReader, alignmentService, planWriter, new MicroserviceScaffolder());
+        PortfolioService portfolioService = new PortfolioService(navigatorService, planWriter);
+        return new NavigatorRunner(
+                navigatorService,
+                portfolioService,
+                new SpecWatcher(navigatorService, portfolioService, planWriter, catalogue),
+                new AlignmentServer(specReader, alignmentService, catalogue),
+                catalogue);
+    }
+
+    private static void applyLoggingLevels(ApplicationArguments arguments) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        for (String name : arguments.getOptionNames()) {
+            if (name.startsWith(LOGGING_LEVEL_PREFIX) && !arguments.getOptionValues(name).isEmpty()) {
+                String logger = name.substring(LOGGING_LEVEL_PREFIX.length());
+                context.getLogger(logger.equals("root") ? Logger.ROOT_LOGGER_NAME : logger)
+                        .setLevel(Level.toLevel(arguments.getOptionValues(name).get(0), Level.INFO));
+            }
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package com.vbot.navigator.cli;
 
+import com.vbot.navigator.config.BianDomainCatalogue;
+import com.vbot.navigator.model.AlignmentOptions;
 import com.vbot.navigator.model.NavigatorRequest;
+import com.vbot.navigator.model.OutputArchive;
+import com.vbot.navigator.model.ScorerMode;
+import com.vbot.navigator.model.SpecReaderMode;
+import com.vbot.navigator.service.AlignmentServer;
 import com.vbot.navigator.service.NavigatorService;
+import com.vbot.navigator.service.PortfolioService;
+import com.vbot.navigator.service.SpecWatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 
+import java.net.InetSocketAddress;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 
 @Component
@@ -18,22 +28,85 @@ public class NavigatorRunner implements ApplicationRunner {
     private static final String SPEC_OPTION = "spec";
     private static final String OUT_OPTION = "out";
     private static final String SCAFFOLD_OPTION = "scaffold";
+    private static final String PARALLELISM_OPTION = "parallelism";
+    private static final String NO_CACHE_OPTION = "no-cache";
+    private static final String TOP_K_OPTION = "top-k";
+    private static final String READER_OPTION = "reader";
+    private static final String SCORER_OPTION = "scorer";
+    private static final String TOP_AREAS_OPTION = "top-areas";
+    private static final String AREA_RECALL_OPTION = "area-recall";
+    private static final String WORKERS_OPTION = "workers";
+    private static final String WATCH_OPTION = "watch";
+    private static final String DEBOUNCE_OPTION = "debounce-ms";
+    private static final String BINARY_OPTION = "binary";
+    private static final String PRUNE_SCAFFOLDS_OPTION = "prune-scaffolds";
+    private static final String ARCHIVE_OPTION = "archive";
+    private static final String COMPILE_CATALOGUE_OPTION = "compile-catalogue";
+    private static final String SERVE_OPTION = "serve";
+    private static final String BASELINE_OPTION = "baseline";
+    private static final int DEFAULT_PORT = 8080;
 
     private final NavigatorService navigatorService;
+    private final PortfolioService portfolioService;
+    private final SpecWatcher specWatcher;
+    private final AlignmentServer alignmentServer;
+    private final BianDomainCatalogue catalogue;
 
-    public NavigatorRunner(NavigatorService navigatorService) {
+    public NavigatorRunner(NavigatorService navigatorService,
+                           PortfolioService portfolioService,
+                           SpecWatcher specWatcher,
+                           AlignmentServer alignmentServer,
+                           BianDomainCatalogue catalogue) {
         this.navigatorService = navigatorService;
+        this.portfolioService = portfolioService;
+        this.specWatcher = specWatcher;
+        this.alignmentServer = alignmentServer;
+        this.catalogue = catalogue;
     }
 
     @Override
     public void run(ApplicationArguments args) throws Exception {
+        if (args.containsOption(COMPILE_CATALOGUE_OPTION)) {
+            List<String> values = args.getOptionValues(COMPILE_CATALOGUE_OPTION);
+            Path target = values.isEmpty() || values.get(0).isBlank() ? null : Path.of(values.get(0).trim());
+            Path written = catalogue.compile(target);
+            log.info("Compiled {} BIAN domains into {}", catalogue.domains().size(), written);
+            if (!args.containsOption(SPEC_OPTION) && !args.containsOption(SERVE_OPTION)) {
+                return;
+            }
+        }
+
+        int parallelism = args.containsOption(PARALLELISM_OPTION)
+                ? positiveInt(PARALLELISM_OPTION, args.getOptionValues(PARALLELISM_OPTION).get(0))
+                : 1;
+
+        int topK = args.containsOption(TOP_K_OPTION)
+                ? positiveInt(TOP_K_OPTION, args.getOptionValues(TOP_K_OPTION).get(0))
+                : 1;
+
+        ScorerMode scorer = args.containsOption(SCORER_OPTION)
+                ? scorerMode(args.getOptionValues(SCORER_OPTION).get(0))
+                : ScorerMode.KEYWORD;
+
+        int topAreas = args.containsOption(TOP_AREAS_OPTION)
+                ? positiveInt(TOP_AREAS_OPTION, args.getOptionValues(TOP_AREAS_OPTION).get(0))
+                : 0;
+        AlignmentOptions alignmentOptions = new AlignmentOptions(parallelism, topK, scorer, topAreas,
+                args.containsOption(AREA_RECALL_OPTION));
+
+        if (args.containsOption(SERVE_OPTION)) {
+            List<String> values = args.getOptionValues(SERVE_OPTION);
+            int port = values.isEmpty() || values.get(0).isBlank() ? DEFAULT_PORT : positiveInt(SERVE_OPTION, values.get(0));
+            alignmentServer.serve(new InetSocketAddress(port), alignmentOptions);
+            return;
+        }
+
         if (!args.containsOption(SPEC_OPTION)) {
-            log.warn("Missing required --spec=path/to/openapi.(yaml|json) argument. Exiting.");
+            log.warn("Missing required --spec=path/to/openapi.(yaml|json) argument (a directory, glob or repeated --spec runs a portfolio), or --serve to start the HTTP endpoint. Exiting.");
             return;
         }
 
         List<String> specArgs = args.getOptionValues(SPEC_OPTION);
-        Path specPath = Path.of(specArgs.get(0));
 
         Path outputDir = args.containsOption(OUT_OPTION)
                 ? Path.of(args.getOptionValues(OUT_OPTION).get(0))
@@ -41,7 +114,90 @@ public class NavigatorRunner implements ApplicationRunner {
 
         boolean scaffold = args.containsOption(SCAFFOLD_OPTION);
 
-        NavigatorRequest request = new NavigatorRequest(specPath, outputDir, scaffold);
-        navigatorService.execute(request);
+        boolean useCache = !args.containsOption(NO_CACHE_OPTION);
+
+        SpecReaderMode readerMode = args.containsOption(READER_OPTION)
+                ? readerMode(args.getOptionValues(READER_OPTION).get(0))
+                : SpecReaderMode.SWAGGER;
+
+        int workers = args.containsOption(WORKERS_OPTION)
+                ? positiveInt(WORKERS_OPTION, args.getOptionValues(WORKERS_OPTION).get(0))
+                : Runtime.getRuntime().availableProcessors();
+
+        NavigatorRequest settings = new NavigatorRequest(null, outputDir, scaffold, useCache,
+                alignmentOptions, readerMode,
+                args.containsOption(BINARY_OPTION), args.containsOption(PRUNE_SCAFFOLDS_OPTION), archive(args));
+        boolean singleSpec = specArgs.size() == 1 && SpecLocator.isSingleFile(specArgs.get(0));
+        List<Path> specPaths = singleSpec ? List.of(Path.of(specArgs.get(0))) : SpecLocator.resolve(specArgs, outputDir);
+        if (specPaths.isEmpty()) {
+            throw new IllegalArgumentException("No OpenAPI specs (.yaml, .yml, .json) found for --" + SPEC_OPTION + " " + specArgs);
+        }
+
+        if (args.containsOption(BASELINE_OPTION)) {
+            if (!singleSpec || args.containsOption(WATCH_OPTION)) {
+                throw new IllegalArgumentException("--" + BASELINE_OPTION + " compares one --" + SPEC_OPTION
+                        + " file with its baseline and cannot be combined with a portfolio or --" + WATCH_OPTION);
+            }
+            List<String> values = args.getOptionValues(BASELINE_OPTION);
+            if (values.isEmpty() || values.get(0).isBlank()) {
+                throw new IllegalArgumentException("--" + BASELINE_OPTION + " expects the path of the earlier spec version");
+            }
+            Path baseline = Path.of(values.get(0).trim());
+            navigatorService.executeDelta(settings.withSpec(specPaths.get(0), outputDir), baseline);
+        } else if (args.containsOption(WATCH_OPTION)) {
+            Duration debounce = Duration.ofMillis(args.containsOption(DEBOUNCE_OPTION)
+                    ? positiveInt(DEBOUNCE_OPTION, args.getOptionValues(DEBOUNCE_OPTION).get(0))
+                    : 300);
+            specWatcher.watch(specPaths, settings, workers, debounce);
+        } else if (singleSpec) {
+            navigatorService.execute(settings.withSpec(specPaths.get(0), outputDir));
+        } else {
+            portfolioService.execute(specPaths, settings, Math.min(workers, specPaths.size()));
+        }
+    }
+
+    private static OutputArchive archive(ApplicationArguments args) {
+        if (!args.containsOption(ARCHIVE_OPTION)) {
+            return OutputArchive.NONE;
+        }
+        List<String> values = args.getOptionValues(ARCHIVE_OPTION);
+        String value = values.isEmpty() ? "" : values.get(0).trim();
+        if (value.isEmpty() || value.equalsIgnoreCase("scaffolds")) {
+            return OutputArchive.SCAFFOLDS;
+        }
+        if (value.equalsIgnoreCase("all")) {
+            return OutputArchive.ALL;
+        }
+        throw new IllegalArgumentException("--" + ARCHIVE_OPTION + " expects 'scaffolds' or 'all' but was '" + value + "'");
+    }
+
+    private static SpecReaderMode readerMode(String value) {
+        for (SpecReaderMode mode : SpecReaderMode.values()) {
+            if (mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("--" + READER_OPTION + " expects 'swagger' or 'streaming' but was '" + value + "'");
+    }
+
+    private static ScorerMode scorerMode(String value) {
+        for (ScorerMode mode : ScorerMode.values()) {
+            if (mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("--" + SCORER_OPTION + " expects 'keyword' or 'bitset' but was '" + value + "'");
+    }
+
+    private static int positiveInt(String option, String value) {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException("--" + option + " expects a positive integer but was '" + value + "'");
     }
 }
@@ -0,0 +1,124 @@
+package com.vbot.navigator.cli;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Expands {@code --spec} values into spec files. A value may name a file, a directory (searched
+ * recursively for .yaml, .yml and .json files) or a glob such as {@code specs/**}{@code /*.yaml}.
+ * Searches skip hidden directories and the output directory, so the navigator's own reports and
+ * cache are never picked up as specs when {@code --out} lies under the spec directory.
+ */
+final class SpecLocator {
+
+    private static final String GLOB_CHARS = "*?[{";
+
+    private SpecLocator() {
+    }
+
+    static List<Path> resolve(List<String> values, Path outputDir) {
+        Path skipped = outputDir.toAbsolutePath().normalize();
+        Set<Path> specs = new LinkedHashSet<>();
+        for (String value : values) {
+            List<Path> found = resolve(value, skipped);
+            if (found.isEmpty()) {
+                throw new IllegalArgumentException("No spec files match --spec=" + value);
+            }
+            specs.addAll(found);
+        }
+        return new ArrayList<>(specs);
+    }
+
+    /**
+     * Whether the value can only ever name a single spec file.
+     */
+    static boolean isSingleFile(String value) {
+        return !isGlob(value) && !Files.isDirectory(Path.of(value));
+    }
+
+    private static List<Path> resolve(String value, Path outputDir) {
+        if (isGlob(value)) {
+            return glob(value, outputDir);
+        }
+        Path path = Path.of(value);
+        if (Files.isDirectory(path)) {
+            return walk(path.toAbsolutePath().normalize(), outputDir, SpecLocator::isSpecFile);
+        }
+        return List.of(path.toAbsolutePath().normalize());
+    }
+
+    private static List<Path> glob(String value, Path outputDir) {
+        String normalized = value.replace('\\', '/');
+        int firstGlob = normalized.length();
+        for (char c : GLOB_CHARS.toCharArray()) {
+            int index = normalized.indexOf(c);
+            if (index >= 0) {
+                firstGlob = Math.min(firstGlob, index);
+            }
+        }
+        int split = normalized.lastIndexOf('/', firstGlob);
+        Path base = split < 0 ? Path.of("") : Path.of(normalized.substring(0, split + 1));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + normalized.substring(split + 1));
+        Path root = base.toAbsolutePath().normalize();
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        return walk(root, outputDir, file -> matcher.matches(root.relativize(file)));
+    }
+
+    /**
+     * The regular files under {@code root} accepted by the filter, skipping hidden directories and
+     * {@code outputDir} below the root.
+     */
+    private static List<Path> walk(Path root, Path outputDir, Predicate<Path> filter) {
+        List<Path> found = new ArrayList<>();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                    boolean skip = !dir.equals(root)
+                            && (dir.equals(outputDir) || dir.getFileName().toString().startsWith("."));
+                    return skip ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile() && filter.test(file)) {
+                        found.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list specs under " + root, e);
+        }
+        found.sort(null);
+        return found;
+    }
+
+    private static boolean isSpecFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        return name.endsWith(".yaml") || name.endsWith(".yml") || name.endsWith(".json");
+    }
+
+    private static boolean isGlob(String value) {
+        for (char c : GLOB_CHARS.toCharArray()) {
+            if (value.indexOf(c) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -5,53 +5,224 @@ import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.vbot.navigator.model.BianServiceDomain;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * The BIAN catalogue, read from {@code bian-domains.yml} on the classpath or from the file given by
+ * {@code --catalogue=}. The loaded domains are held as an immutable {@link CatalogueSnapshot};
+ * {@link #reload()} re-reads the source and swaps the snapshot atomically.
+ * <p>
+ * When a precompiled {@code .snapshot} file sits next to the YAML (see {@link CatalogueCompiler}) and
+ * was compiled from exactly these YAML bytes, it is memory-mapped and loaded instead of parsing the
+ * YAML and compiling the matcher. A missing, stale or unreadable snapshot falls back to the YAML.
+ */
 @Component
 public class BianDomainCatalogue {
 
     private static final Logger log = LoggerFactory.getLogger(BianDomainCatalogue.class);
 
-    private final List<BianServiceDomain> domains;
-    private final BianServiceDomain fallbackDomain;
+    private final Resource resource;
+    private final boolean usePrecompiled;
+    private final AtomicReference<CatalogueSnapshot> snapshot = new AtomicReference<>();
 
     public BianDomainCatalogue() {
         this(new ClassPathResource("bian-domains.yml"));
     }
 
+    @Autowired
+    public BianDomainCatalogue(@Value("${catalogue:}") String cataloguePath) {
+        this(cataloguePath.isBlank() ? new ClassPathResource("bian-domains.yml") : new FileSystemResource(cataloguePath));
+    }
+
     public BianDomainCatalogue(Resource resource) {
-        this.domains = load(resource);
-        this.fallbackDomain = buildFallback();
+        this(resource, true);
+    }
+
+    /**
+     * @param usePrecompiled whether a precompiled snapshot next to the source may be loaded instead of
+     *                       the source itself; {@link CatalogueCompiler} always reads the source
+     */
+    BianDomainCatalogue(Resource resource, boolean usePrecompiled) {
+        this.resource = resource;
+        this.usePrecompiled = usePrecompiled;
+        CatalogueSnapshot loaded;
+        try {
+            loaded = load(resource);
+        } catch (IOException e) {
+            log.warn("Failed to read BIAN catalogue from {}. Proceeding with empty set.", resource.getFilename(), e);
+            loaded = new CatalogueSnapshot(List.of(), buildFallback(), null);
+        }
+        snapshot.set(loaded);
+    }
+
+    /**
+     * The current catalogue. Callers that make several lookups should capture it once.
+     */
+    public CatalogueSnapshot snapshot() {
+        return snapshot.get();
     }
 
     public List<BianServiceDomain> domains() {
-        return domains;
+        return snapshot().domains();
     }
 
     public BianServiceDomain fallbackDomain() {
-        return fallbackDomain;
+        return snapshot().fallbackDomain();
+    }
+
+    /**
+     * Position of the domain in {@link #domains()}, or -1 for the fallback or a foreign domain.
+     */
+    public int indexOf(BianServiceDomain domain) {
+        return snapshot().indexOf(domain);
+    }
+
+    public CatalogueMatcher matcher() {
+        return snapshot().matcher();
+    }
+
+    /**
+     * Content hash of the loaded domains in catalogue order, covering everything the scorer reads.
+     */
+    public String fingerprint() {
+        return snapshot().fingerprint();
+    }
+
+    /**
+     * The catalogue file on disk, when the source is one that can change while the process runs.
+     */
+    public Optional<Path> sourceFile() {
+        try {
+            return resource.isFile() ? Optional.of(resource.getFile().toPath().toAbsolutePath().normalize()) : Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Re-reads the catalogue source and swaps in the new snapshot. When the source cannot be read
+     * the current snapshot is kept and {@code false} is returned.
+     */
+    public boolean reload() {
+        try {
+            CatalogueSnapshot reloaded = load(resource);
+            CatalogueSnapshot previous = snapshot.getAndSet(reloaded);
+            log.info("Reloaded BIAN catalogue from {}: {} domains (fingerprint {} -> {})",
+                    resource.getDescription(), reloaded.domains().size(),
+                    abbreviate(previous.fingerprint()), abbreviate(reloaded.fingerprint()));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to reload BIAN catalogue from {}. Keeping the previous version.", resource.getDescription(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Writes the current catalogue as a precompiled snapshot to {@code target}, by default next to the
+     * catalogue file, and returns the path written.
+     */
+    public Path compile(Path target) throws IOException {
+        Path file = target != null ? target : sourceFile()
+                .map(source -> source.resolveSibling(CatalogueSnapshotFile.fileName(source.getFileName().toString())))
+                .orElseThrow(() -> new IllegalStateException("The catalogue " + resource.getDescription()
+                        + " is not a file; give an explicit snapshot path"));
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                CatalogueSnapshotFile.write(out, snapshot());
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return file;
     }
 
-    private List<BianServiceDomain> load(Resource resource) {
+    private CatalogueSnapshot load(Resource resource) throws IOException {
+        byte[] source;
+        try (InputStream in = resource.getInputStream()) {
+            source = in.readAllBytes();
+        }
+        String sourceHash = CatalogueSnapshotFile.sourceHash(source);
+        Optional<CatalogueSnapshot> compiled = loadCompiled(resource, sourceHash);
+        if (compiled.isPresent()) {
+            return compiled.get();
+        }
+
         ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        CatalogueFile data = mapper.readValue(source, CatalogueFile.class);
+        if (data == null || data.domains == null || data.domains.isEmpty()) {
+            log.warn("No BIAN domains loaded from {}. Add entries to bian-domains.yml.", resource.getFilename());
+            return new CatalogueSnapshot(List.of(), buildFallback(), sourceHash);
+        }
+        return new CatalogueSnapshot(data.domains, buildFallback(), sourceHash);
+    }
+
+    /**
+     * The precompiled snapshot next to the catalogue, when there is one compiled from {@code sourceHash}.
+     */
+    private Optional<CatalogueSnapshot> loadCompiled(Resource resource, String sourceHash) {
+        String filename = resource.getFilename();
+        if (!usePrecompiled || filename == null) {
+            return Optional.empty();
+        }
+        Resource compiled;
         try {
-            CatalogueFile data = mapper.readValue(resource.getInputStream(), CatalogueFile.class);
-            if (data.domains == null || data.domains.isEmpty()) {
-                log.warn("No BIAN domains loaded from {}. Add entries to bian-domains.yml.", resource.getFilename());
-                return new ArrayList<>();
+            compiled = resource.createRelative(CatalogueSnapshotFile.fileName(filename));
+            if (!compiled.exists()) {
+                log.debug("No precompiled catalogue snapshot next to {}", resource.getDescription());
+                return Optional.empty();
             }
-            return data.domains;
         } catch (IOException e) {
-            log.warn("Failed to read BIAN catalogue from {}. Proceeding with empty set.", resource.getFilename(), e);
-            return new ArrayList<>();
+            return Optional.empty();
+        }
+        try {
+            Optional<CatalogueSnapshot> loaded = CatalogueSnapshotFile.read(map(compiled), sourceHash, buildFallback());
+            if (loaded.isPresent()) {
+                log.debug("Loaded precompiled catalogue snapshot {}", compiled.getDescription());
+            } else {
+                log.info("Catalogue snapshot {} is stale; loading {} instead. Recompile it with --compile-catalogue.",
+                        compiled.getDescription(), resource.getDescription());
+            }
+            return loaded;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to read catalogue snapshot {}; loading {} instead.", compiled.getDescription(), resource.getDescription(), e);
+            return Optional.empty();
+        }
+    }
+
+    private static ByteBuffer map(Resource compiled) throws IOException {
+        if (!compiled.isFile()) {
+            try (InputStream in = compiled.getInputStream()) {
+                return ByteBuffer.wrap(in.readAllBytes());
+            }
         }
+        try (FileChannel channel = FileChannel.open(compiled.getFile().toPath(), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static String abbreviate(String fingerprint) {
+        return fingerprint.substring(0, 12);
     }
 
     private BianServiceDomain buildFallback() {
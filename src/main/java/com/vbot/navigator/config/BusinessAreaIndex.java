@@ -0,0 +1,139 @@
+package com.vbot.navigator.config;
+
+import com.vbot.navigator.model.BianServiceDomain;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The catalogue's service domains grouped by BIAN business area. Each area has an aggregated profile,
+ * the union of its domains' keyword, name and code terms as a bitset over the {@link CatalogueMatcher}
+ * pattern ids, so an operation can be scored against a handful of areas before any of their domains.
+ * Areas are numbered in order of first appearance in the catalogue. Domains without a business area
+ * belong to no area and are always scored.
+ */
+public final class BusinessAreaIndex {
+
+    public static final int NONE = -1;
+
+    private final List<String> names;
+    private final int[] areaOf;
+    private final long[][] profiles;
+
+    private BusinessAreaIndex(List<String> names, int[] areaOf, long[][] profiles) {
+        this.names = List.copyOf(names);
+        this.areaOf = areaOf;
+        this.profiles = profiles;
+    }
+
+    static BusinessAreaIndex build(List<BianServiceDomain> domains, CatalogueMatcher matcher) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        List<BitSet> profiles = new ArrayList<>();
+        int[] areaOf = new int[domains.size()];
+        for (int d = 0; d < domains.size(); d++) {
+            String area = domains.get(d).getBusinessArea();
+            if (area == null || area.isBlank()) {
+                areaOf[d] = NONE;
+                continue;
+            }
+            Integer id = ids.get(area.trim());
+            if (id == null) {
+                id = names.size();
+                ids.put(area.trim(), id);
+                names.add(area.trim());
+                profiles.add(new BitSet());
+            }
+            profiles.get(id).or(matcher.terms(d));
+            areaOf[d] = id;
+        }
+        long[][] words = new long[profiles.size()][];
+        for (int a = 0; a < words.length; a++) {
+            words[a] = profiles.get(a).toLongArray();
+        }
+        return new BusinessAreaIndex(names, areaOf, words);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public List<String> names() {
+        return names;
+    }
+
+    /**
+     * The area of the domain at this catalogue index, or {@link #NONE}.
+     */
+    public int areaOf(int domainIndex) {
+        return areaOf[domainIndex];
+    }
+
+    /**
+     * The areas holding at least one of the candidate domains, best match first. An area scores 1.2 for
+     * each of its terms in the text, 0.8 for each term only near the text and 0.8 for each occurrence in
+     * a tag, the weights the domain scorer gives keywords. Equal scores keep catalogue order.
+     */
+    public int[] rank(CatalogueMatcher.KeywordBits bits, BitSet candidates) {
+        boolean[] present = new boolean[names.size()];
+        int count = 0;
+        for (int d = candidates.nextSetBit(0); d >= 0; d = candidates.nextSetBit(d + 1)) {
+            int area = areaOf[d];
+            if (area != NONE && !present[area]) {
+                present[area] = true;
+                count++;
+            }
+        }
+        int[] ranked = new int[count];
+        double[] scores = new double[count];
+        int size = 0;
+        for (int a = 0; a < present.length; a++) {
+            if (!present[a]) {
+                continue;
+            }
+            double score = 1.2 * count(profiles[a], bits.text()) + 0.8 * count(profiles[a], bits.nearOnly());
+            for (long[] tag : bits.tags()) {
+                score += 0.8 * count(profiles[a], tag);
+            }
+            // Insertion sort: there are only a few areas, and it keeps equal scores in catalogue order.
+            int i = size++;
+            while (i > 0 && scores[i - 1] < score) {
+                ranked[i] = ranked[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            ranked[i] = a;
+            scores[i] = score;
+        }
+        return ranked;
+    }
+
+    /**
+     * The candidate domains in the first {@code keep} areas of {@code rankedAreas}, plus the candidates
+     * without an area.
+     */
+    public BitSet domainsIn(int[] rankedAreas, int keep, BitSet candidates) {
+        boolean[] kept = new boolean[names.size()];
+        for (int r = 0; r < Math.min(keep, rankedAreas.length); r++) {
+            kept[rankedAreas[r]] = true;
+        }
+        BitSet domains = new BitSet(candidates.length());
+        for (int d = candidates.nextSetBit(0); d >= 0; d = candidates.nextSetBit(d + 1)) {
+            if (areaOf[d] == NONE || kept[areaOf[d]]) {
+                domains.set(d);
+            }
+        }
+        return domains;
+    }
+
+    private static int count(long[] profile, long[] hits) {
+        int count = 0;
+        for (int w = 0; w < Math.min(profile.length, hits.length); w++) {
+            count += Long.bitCount(profile[w] & hits[w]);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,37 @@
+package com.vbot.navigator.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Compiles a YAML catalogue into the precompiled snapshot read by {@link BianDomainCatalogue} at
+ * startup, without starting the application. The build runs it on the bundled
+ * {@code bian-domains.yml}; catalogues given with {@code --catalogue=} are compiled with
+ * {@code --compile-catalogue}.
+ * <p>
+ * Usage: {@code CatalogueCompiler <catalogue.yml> [<snapshot>]}. The snapshot defaults to the
+ * catalogue path with its extension replaced by {@code .snapshot}.
+ */
+public final class CatalogueCompiler {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogueCompiler.class);
+
+    private CatalogueCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            throw new IllegalArgumentException("Usage: CatalogueCompiler <catalogue.yml> [<snapshot>]");
+        }
+        BianDomainCatalogue catalogue = new BianDomainCatalogue(new FileSystemResource(args[0]), false);
+        if (catalogue.domains().isEmpty()) {
+            throw new IllegalStateException("No BIAN domains in " + args[0]);
+        }
+        Path written = catalogue.compile(args.length == 2 ? Path.of(args[1]) : null);
+        log.info("Compiled {} BIAN domains from {} into {}", catalogue.domains().size(), args[0], written);
+    }
+}
@@ -0,0 +1,332 @@
+package com.vbot.navigator.config;
+
+import com.vbot.navigator.model.BianServiceDomain;
+import com.vbot.navigator.util.AhoCorasick;
+import com.vbot.navigator.util.BinaryCodec;
+import com.vbot.navigator.util.TokenDictionary;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The catalogue's lowercase keywords, names and codes compiled into a single {@link AhoCorasick}
+ * automaton. Each distinct term becomes one pattern; the per-domain tables map every keyword, name
+ * and code back to its pattern id so the scorer can test hits without any substring search. The same
+ * pattern ids key the {@link FuzzyTermIndex} used for near matches on keywords and names.
+ * <p>
+ * Each domain's keywords are also held as a bitset over the pattern ids, stored sparsely as the
+ * indexes and masks of its non-zero 64-bit words. {@link #keywordBits(Match)} counts a domain's hits
+ * with a word-wise AND and popcount per stored word instead of testing keywords one by one.
+ */
+public final class CatalogueMatcher {
+
+    private static final int NONE = -1;
+
+    private final AhoCorasick automaton;
+    private final FuzzyTermIndex fuzzyIndex;
+    private final int[][] keywordPatterns;
+    private final int[] namePatterns;
+    private final int[] codePatterns;
+    private final int[][] patternDomains;
+    private final int[][] fuzzyDomains;
+    private final int[][] keywordWords;
+    private final long[][] keywordMasks;
+    private final boolean[] repeatedKeywords;
+
+    private CatalogueMatcher(AhoCorasick automaton,
+                             FuzzyTermIndex fuzzyIndex,
+                             int[][] keywordPatterns,
+                             int[] namePatterns,
+                             int[] codePatterns,
+                             int[][] patternDomains,
+                             int[][] fuzzyDomains) {
+        this.automaton = automaton;
+        this.fuzzyIndex = fuzzyIndex;
+        this.keywordPatterns = keywordPatterns;
+        this.namePatterns = namePatterns;
+        this.codePatterns = codePatterns;
+        this.patternDomains = patternDomains;
+        this.fuzzyDomains = fuzzyDomains;
+        this.keywordWords = new int[keywordPatterns.length][];
+        this.keywordMasks = new long[keywordPatterns.length][];
+        this.repeatedKeywords = new boolean[keywordPatterns.length];
+        for (int d = 0; d < keywordPatterns.length; d++) {
+            BitSet bits = new BitSet();
+            for (int pattern : keywordPatterns[d]) {
+                repeatedKeywords[d] |= bits.get(pattern);
+                bits.set(pattern);
+            }
+            long[] words = bits.toLongArray();
+            int nonZero = 0;
+            for (long word : words) {
+                if (word != 0) {
+                    nonZero++;
+                }
+            }
+            keywordWords[d] = new int[nonZero];
+            keywordMasks[d] = new long[nonZero];
+            for (int w = 0, i = 0; w < words.length; w++) {
+                if (words[w] != 0) {
+                    keywordWords[d][i] = w;
+                    keywordMasks[d][i++] = words[w];
+                }
+            }
+        }
+    }
+
+    public static CatalogueMatcher compile(List<BianServiceDomain> domains) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> patterns = new ArrayList<>();
+        List<BitSet> owners = new ArrayList<>();
+        List<BitSet> fuzzyOwners = new ArrayList<>();
+
+        int[][] keywordPatterns = new int[domains.size()][];
+        int[] namePatterns = new int[domains.size()];
+        int[] codePatterns = new int[domains.size()];
+
+        for (int d = 0; d < domains.size(); d++) {
+            BianServiceDomain domain = domains.get(d);
+            List<String> keywords = domain.getKeywords();
+            keywordPatterns[d] = new int[keywords.size()];
+            for (int k = 0; k < keywords.size(); k++) {
+                keywordPatterns[d][k] = intern(keywords.get(k).toLowerCase(), d, true, ids, patterns, owners, fuzzyOwners);
+            }
+            namePatterns[d] = domain.getName() == null || domain.getName().isBlank()
+                    ? NONE
+                    : intern(domain.getName().toLowerCase(), d, true, ids, patterns, owners, fuzzyOwners);
+            codePatterns[d] = domain.getCode() == null || domain.getCode().isBlank()
+                    ? NONE
+                    : intern(domain.getCode().toLowerCase(), d, false, ids, patterns, owners, fuzzyOwners);
+        }
+
+        return new CatalogueMatcher(
+                AhoCorasick.compile(patterns),
+                FuzzyTermIndex.build(patterns),
+                keywordPatterns,
+                namePatterns,
+                codePatterns,
+                toArrays(owners),
+                toArrays(fuzzyOwners));
+    }
+
+    /**
+     * Writes the compiled matcher so {@link #readFrom(ByteBuffer)} can restore it without recompiling.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        automaton.writeTo(out);
+        fuzzyIndex.writeTo(out);
+        BinaryCodec.writeIntTable(out, keywordPatterns);
+        BinaryCodec.writeInts(out, namePatterns);
+        BinaryCodec.writeInts(out, codePatterns);
+        BinaryCodec.writeIntTable(out, patternDomains);
+        BinaryCodec.writeIntTable(out, fuzzyDomains);
+    }
+
+    static CatalogueMatcher readFrom(ByteBuffer in) {
+        return new CatalogueMatcher(
+                AhoCorasick.readFrom(in),
+                FuzzyTermIndex.readFrom(in),
+                BinaryCodec.readIntTable(in),
+                BinaryCodec.readInts(in),
+                BinaryCodec.readInts(in),
+                BinaryCodec.readIntTable(in),
+                BinaryCodec.readIntTable(in));
+    }
+
+    /**
+     * The pattern ids of the domain's keywords, name and code.
+     */
+    BitSet terms(int domainIndex) {
+        BitSet terms = new BitSet();
+        for (int pattern : keywordPatterns[domainIndex]) {
+            terms.set(pattern);
+        }
+        if (namePatterns[domainIndex] != NONE) {
+            terms.set(namePatterns[domainIndex]);
+        }
+        if (codePatterns[domainIndex] != NONE) {
+            terms.set(codePatterns[domainIndex]);
+        }
+        return terms;
+    }
+
+    private static int intern(String term,
+                              int domainIndex,
+                              boolean fuzzy,
+                              Map<String, Integer> ids,
+                              List<String> patterns,
+                              List<BitSet> owners,
+                              List<BitSet> fuzzyOwners) {
+        Integer id = ids.get(term);
+        if (id == null) {
+            id = patterns.size();
+            ids.put(term, id);
+            patterns.add(term);
+            owners.add(new BitSet());
+            fuzzyOwners.add(new BitSet());
+        }
+        owners.get(id).set(domainIndex);
+        if (fuzzy) {
+            fuzzyOwners.get(id).set(domainIndex);
+        }
+        return id;
+    }
+
+    private static int[][] toArrays(List<BitSet> sets) {
+        int[][] arrays = new int[sets.size()][];
+        for (int i = 0; i < sets.size(); i++) {
+            arrays[i] = sets.get(i).stream().toArray();
+        }
+        return arrays;
+    }
+
+    /**
+     * Scans the encoded lowercase searchable text, and each encoded tag separately, in one pass apiece,
+     * then looks up near matches for the text's words.
+     */
+    public Match match(TokenDictionary dictionary, int[] text, int[][] tags) {
+        BitSet textHits = automaton.scan(dictionary, text);
+        BitSet candidates = new BitSet(keywordPatterns.length);
+        for (int p = textHits.nextSetBit(0); p >= 0; p = textHits.nextSetBit(p + 1)) {
+            for (int domainIndex : patternDomains[p]) {
+                candidates.set(domainIndex);
+            }
+        }
+
+        FuzzyTermIndex.NearTokens near = fuzzyIndex.matchTokens(dictionary, text);
+        BitSet nearTokens = near.tokens();
+        BitSet nearTerms = fuzzyIndex.completeTerms(nearTokens);
+        BitSet touchedTerms = fuzzyIndex.touchedTerms(nearTokens);
+        for (int p = touchedTerms.nextSetBit(0); p >= 0; p = touchedTerms.nextSetBit(p + 1)) {
+            for (int domainIndex : fuzzyDomains[p]) {
+                candidates.set(domainIndex);
+            }
+        }
+
+        List<BitSet> tagHits = new ArrayList<>(tags.length);
+        for (int[] tag : tags) {
+            tagHits.add(automaton.scan(dictionary, tag));
+        }
+        return new Match(this, textHits, tagHits, nearTokens, nearTerms, candidates, near.comparisons());
+    }
+
+    /**
+     * The operation's hits as bitset words, for counting every candidate's keyword hits at once.
+     */
+    public KeywordBits keywordBits(Match match) {
+        long[] text = match.textHits().toLongArray();
+        long[] nearOnly = match.nearTerms().toLongArray();
+        for (int w = 0; w < Math.min(text.length, nearOnly.length); w++) {
+            nearOnly[w] &= ~text[w];
+        }
+        long[][] tags = new long[match.tagHits().size()][];
+        for (int t = 0; t < tags.length; t++) {
+            tags[t] = match.tagHits().get(t).toLongArray();
+        }
+        return new KeywordBits(this, text, nearOnly, tags);
+    }
+
+    /**
+     * Keyword hit counts per domain, each a word-wise AND of the domain's keyword bitset with one of the
+     * operation's hit bitsets followed by a popcount.
+     */
+    public record KeywordBits(CatalogueMatcher matcher, long[] text, long[] nearOnly, long[][] tags) {
+
+        /**
+         * Whether the counts equal the keyword scorer's: false when the domain lists a keyword twice,
+         * which the bitset holds once.
+         */
+        public boolean countsExact(int domainIndex) {
+            return !matcher.repeatedKeywords[domainIndex];
+        }
+
+        /**
+         * Keywords occurring in the searchable text.
+         */
+        public int inText(int domainIndex) {
+            return count(domainIndex, text);
+        }
+
+        /**
+         * Keywords not in the text whose every token is near a token of the text.
+         */
+        public int nearOnly(int domainIndex) {
+            return count(domainIndex, nearOnly);
+        }
+
+        /**
+         * Keyword occurrences in the tags, counting each tag separately.
+         */
+        public int inTags(int domainIndex) {
+            int hits = 0;
+            for (long[] tag : tags) {
+                hits += count(domainIndex, tag);
+            }
+            return hits;
+        }
+
+        private int count(int domainIndex, long[] hits) {
+            int[] words = matcher.keywordWords[domainIndex];
+            long[] masks = matcher.keywordMasks[domainIndex];
+            int count = 0;
+            for (int i = 0; i < words.length && words[i] < hits.length; i++) {
+                count += Long.bitCount(hits[words[i]] & masks[i]);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Hits for one operation. {@link #candidates()} holds the index of every domain with at least one
+     * keyword, name or code occurring in the searchable text, or a keyword or name token near one of
+     * the text's tokens. {@link #fuzzyComparisons()} counts the Jaro-Winkler comparisons made.
+     */
+    public record Match(CatalogueMatcher matcher,
+                        BitSet textHits,
+                        List<BitSet> tagHits,
+                        BitSet nearTokens,
+                        BitSet nearTerms,
+                        BitSet candidates,
+                        int fuzzyComparisons) {
+
+        public boolean keywordInText(int domainIndex, int keywordIndex) {
+            return textHits.get(matcher.keywordPatterns[domainIndex][keywordIndex]);
+        }
+
+        /**
+         * Whether every token of the keyword is within the typo threshold of a token in the text.
+         */
+        public boolean keywordNearText(int domainIndex, int keywordIndex) {
+            return nearTerms.get(matcher.keywordPatterns[domainIndex][keywordIndex]);
+        }
+
+        public boolean keywordInTag(int tagIndex, int domainIndex, int keywordIndex) {
+            return tagHits.get(tagIndex).get(matcher.keywordPatterns[domainIndex][keywordIndex]);
+        }
+
+        public boolean nameInText(int domainIndex) {
+            int pattern = matcher.namePatterns[domainIndex];
+            return pattern != NONE && textHits.get(pattern);
+        }
+
+        /**
+         * The fraction of the domain name's tokens that are within the typo threshold of a token in the
+         * text, or 0 when the domain has no name.
+         */
+        public double nameCoverage(int domainIndex) {
+            int pattern = matcher.namePatterns[domainIndex];
+            return pattern == NONE ? 0.0 : matcher.fuzzyIndex.coverage(pattern, nearTokens);
+        }
+
+        public boolean codeInText(int domainIndex) {
+            int pattern = matcher.codePatterns[domainIndex];
+            return pattern != NONE && textHits.get(pattern);
+        }
+    }
+}
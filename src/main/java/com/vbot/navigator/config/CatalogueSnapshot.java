@@ -0,0 +1,94 @@
+package com.vbot.navigator.config;
+
+import com.vbot.navigator.model.BianServiceDomain;
+import com.vbot.navigator.util.ContentHash;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One loaded version of the BIAN catalogue together with everything compiled from it. Snapshots are
+ * never modified, so a run that captures one at its start sees a consistent catalogue even if
+ * {@link BianDomainCatalogue#reload()} swaps in a new version meanwhile.
+ */
+public final class CatalogueSnapshot {
+
+    private final List<BianServiceDomain> domains;
+    private final BianServiceDomain fallbackDomain;
+    private final CatalogueMatcher matcher;
+    private final BusinessAreaIndex areas;
+    private final String fingerprint;
+    private final String sourceHash;
+    private final Map<BianServiceDomain, Integer> indexes;
+
+    CatalogueSnapshot(List<BianServiceDomain> domains, BianServiceDomain fallbackDomain, String sourceHash) {
+        this(domains, fallbackDomain, null, null, sourceHash);
+    }
+
+    /**
+     * Restores a snapshot whose matcher and fingerprint were compiled earlier, see
+     * {@link CatalogueSnapshotFile}.
+     */
+    CatalogueSnapshot(List<BianServiceDomain> domains, BianServiceDomain fallbackDomain,
+                      CatalogueMatcher matcher, String fingerprint, String sourceHash) {
+        this.domains = List.copyOf(domains);
+        this.fallbackDomain = fallbackDomain;
+        this.matcher = matcher != null ? matcher : CatalogueMatcher.compile(this.domains);
+        this.areas = BusinessAreaIndex.build(this.domains, this.matcher);
+        this.fingerprint = fingerprint != null ? fingerprint : fingerprint(this.domains);
+        this.sourceHash = sourceHash;
+        this.indexes = new IdentityHashMap<>();
+        for (int i = 0; i < this.domains.size(); i++) {
+            indexes.put(this.domains.get(i), i);
+        }
+    }
+
+    public List<BianServiceDomain> domains() {
+        return domains;
+    }
+
+    public BianServiceDomain fallbackDomain() {
+        return fallbackDomain;
+    }
+
+    /**
+     * Position of the domain in {@link #domains()}, or -1 for the fallback or a foreign domain.
+     */
+    public int indexOf(BianServiceDomain domain) {
+        return indexes.getOrDefault(domain, -1);
+    }
+
+    public CatalogueMatcher matcher() {
+        return matcher;
+    }
+
+    /**
+     * The domains grouped by business area, for coarse-to-fine alignment.
+     */
+    public BusinessAreaIndex areas() {
+        return areas;
+    }
+
+    /**
+     * Content hash of the domains in catalogue order, covering everything the scorer reads.
+     */
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * SHA-256 of the catalogue source bytes, or {@code null} when there was no readable source.
+     */
+    String sourceHash() {
+        return sourceHash;
+    }
+
+    private static String fingerprint(List<BianServiceDomain> domains) {
+        ContentHash hash = ContentHash.sha256();
+        for (BianServiceDomain domain : domains) {
+            hash.add(domain.getCode()).add(domain.getName()).add(domain.getBusinessArea()).add(domain.getKeywords());
+        }
+        return hash.hex();
+    }
+}
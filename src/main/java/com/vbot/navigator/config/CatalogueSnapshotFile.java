@@ -0,0 +1,106 @@
+package com.vbot.navigator.config;
+
+import com.vbot.navigator.model.BianServiceDomain;
+import com.vbot.navigator.util.BinaryCodec;
+import com.vbot.navigator.util.ContentHash;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Precompiled form of a {@link CatalogueSnapshot}, stored next to the YAML catalogue as
+ * {@code <name>.snapshot} (see {@link CatalogueCompiler}). Loading it skips YAML parsing and matcher
+ * compilation: the domains are decoded and the matcher's arrays are bulk-copied from the buffer.
+ * <p>
+ * Layout (big-endian): magic, format version, SHA-256 of the YAML source bytes, the catalogue
+ * fingerprint, the domain count and each domain's code, name, business area, business domain,
+ * keywords and capabilities, then the compiled {@link CatalogueMatcher}. Strings and arrays are
+ * encoded with {@link BinaryCodec}.
+ * <p>
+ * A snapshot is only used when its source hash matches the YAML it sits next to. {@link #VERSION}
+ * must be bumped whenever the encoding or the way {@link CatalogueMatcher#compile} builds its indexes
+ * changes, so snapshots compiled by an older build are recompiled instead of trusted.
+ */
+final class CatalogueSnapshotFile {
+
+    static final int MAGIC = 0x42434154; // "BCAT"
+    static final int VERSION = 3;
+    static final String EXTENSION = ".snapshot";
+
+    private CatalogueSnapshotFile() {
+    }
+
+    static String sourceHash(byte[] source) {
+        return ContentHash.sha256().add(source).hex();
+    }
+
+    /**
+     * The snapshot file name for a catalogue file name: {@code bian-domains.yml} becomes
+     * {@code bian-domains.snapshot}.
+     */
+    static String fileName(String catalogueFileName) {
+        int dot = catalogueFileName.lastIndexOf('.');
+        return (dot > 0 ? catalogueFileName.substring(0, dot) : catalogueFileName) + EXTENSION;
+    }
+
+    /**
+     * Writes the snapshot; the caller owns the target stream, so it is flushed but not closed.
+     */
+    static void write(OutputStream target, CatalogueSnapshot snapshot) throws IOException {
+        if (snapshot.sourceHash() == null) {
+            throw new IllegalStateException("The catalogue was not loaded from a source and cannot be compiled");
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(target, 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        BinaryCodec.writeString(out, snapshot.sourceHash());
+        BinaryCodec.writeString(out, snapshot.fingerprint());
+        out.writeInt(snapshot.domains().size());
+        for (BianServiceDomain domain : snapshot.domains()) {
+            BinaryCodec.writeString(out, domain.getCode());
+            BinaryCodec.writeString(out, domain.getName());
+            BinaryCodec.writeString(out, domain.getBusinessArea());
+            BinaryCodec.writeStrings(out, domain.getKeywords());
+            BinaryCodec.writeStrings(out, domain.getCapabilities());
+        }
+        snapshot.matcher().writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * Restores a snapshot, or returns empty when it was written by another format version or compiled
+     * from a different source. Throws {@link IllegalArgumentException} when the buffer is not a
+     * catalogue snapshot at all.
+     */
+    static Optional<CatalogueSnapshot> read(ByteBuffer in, String sourceHash, BianServiceDomain fallback) {
+        if (in.remaining() < 2 * Integer.BYTES || in.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a catalogue snapshot");
+        }
+        if (in.getInt() != VERSION || !sourceHash.equals(BinaryCodec.readString(in))) {
+            return Optional.empty();
+        }
+        String fingerprint = BinaryCodec.readString(in);
+        int count = in.getInt();
+        List<BianServiceDomain> domains = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BianServiceDomain domain = new BianServiceDomain();
+            domain.setCode(BinaryCodec.readString(in));
+            domain.setName(BinaryCodec.readString(in));
+            domain.setBusinessArea(BinaryCodec.readString(in));
+            domain.setKeywords(BinaryCodec.readStrings(in));
+            domain.setCapabilities(BinaryCodec.readStrings(in));
+            domains.add(domain);
+        }
+        CatalogueMatcher matcher = CatalogueMatcher.readFrom(in);
+        if (in.hasRemaining()) {
+            throw new IllegalArgumentException("Corrupt catalogue snapshot: " + in.remaining() + " trailing bytes");
+        }
+        return Optional.of(new CatalogueSnapshot(domains, fallback, matcher, fingerprint, sourceHash));
+    }
+}
@@ -0,0 +1,250 @@
+package com.vbot.navigator.config;
+
+import com.vbot.navigator.util.BinaryCodec;
+import com.vbot.navigator.util.TokenDictionary;
+import org.apache.commons.text.similarity.JaroWinklerSimilarity;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token-level typo tolerance for catalogue terms. Every term is split into alphanumeric tokens and
+ * each distinct token is indexed by its character trigrams. An operation token is compared with
+ * Jaro-Winkler only against the term tokens it shares a trigram with, so the work per operation
+ * depends on its distinct tokens rather than on the length of its description. Words shorter than
+ * {@value #FULL_SCAN_BELOW_LENGTH} characters are compared with every term token instead: a single
+ * transposition can break all their trigrams ("laon" shares none with "loan"). The term tokens near
+ * an operation token depend only on that token, so they are remembered per token and a word seen in
+ * many operations is compared once.
+ */
+final class FuzzyTermIndex {
+
+    private static final double MIN_SIMILARITY = 0.9;
+    private static final int MIN_TOKEN_LENGTH = 3;
+    private static final int FULL_SCAN_BELOW_LENGTH = 7;
+    private static final int[] NO_IDS = new int[0];
+    private static final int MAX_REMEMBERED_TOKENS = 1 << 16;
+
+    private final JaroWinklerSimilarity similarity = new JaroWinklerSimilarity();
+    private final String[] tokens;
+    private final Map<String, int[]> trigramTokens;
+    private final int[][] termTokens;
+    private final int[][] tokenTerms;
+    private final Map<String, int[]> nearByToken = new ConcurrentHashMap<>();
+
+    private FuzzyTermIndex(String[] tokens, Map<String, int[]> trigramTokens, int[][] termTokens, int[][] tokenTerms) {
+        this.tokens = tokens;
+        this.trigramTokens = trigramTokens;
+        this.termTokens = termTokens;
+        this.tokenTerms = tokenTerms;
+    }
+
+    /**
+     * Indexes the given lowercase terms. Term ids are their positions in the list.
+     */
+    static FuzzyTermIndex build(List<String> terms) {
+        Map<String, Integer> tokenIds = new HashMap<>();
+        List<String> tokens = new ArrayList<>();
+        List<List<Integer>> tokenTerms = new ArrayList<>();
+        int[][] termTokens = new int[terms.size()][];
+
+        for (int termId = 0; termId < terms.size(); termId++) {
+            Set<String> distinct = tokens(terms.get(termId));
+            int[] ids = new int[distinct.size()];
+            int i = 0;
+            for (String token : distinct) {
+                Integer id = tokenIds.get(token);
+                if (id == null) {
+                    id = tokens.size();
+                    tokenIds.put(token, id);
+                    tokens.add(token);
+                    tokenTerms.add(new ArrayList<>());
+                }
+                tokenTerms.get(id).add(termId);
+                ids[i++] = id;
+            }
+            termTokens[termId] = ids;
+        }
+
+        Map<String, List<Integer>> postings = new HashMap<>();
+        for (int id = 0; id < tokens.size(); id++) {
+            for (String gram : trigrams(tokens.get(id))) {
+                postings.computeIfAbsent(gram, k -> new ArrayList<>()).add(id);
+            }
+        }
+        Map<String, int[]> trigramTokens = new HashMap<>();
+        postings.forEach((gram, ids) -> trigramTokens.put(gram, toArray(ids)));
+
+        int[][] termsByToken = new int[tokens.size()][];
+        for (int id = 0; id < tokens.size(); id++) {
+            termsByToken[id] = toArray(tokenTerms.get(id));
+        }
+        return new FuzzyTermIndex(tokens.toArray(new String[0]), trigramTokens, termTokens, termsByToken);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        BinaryCodec.writeStrings(out, Arrays.asList(tokens));
+        out.writeInt(trigramTokens.size());
+        for (Map.Entry<String, int[]> entry : trigramTokens.entrySet()) {
+            BinaryCodec.writeString(out, entry.getKey());
+            BinaryCodec.writeInts(out, entry.getValue());
+        }
+        BinaryCodec.writeIntTable(out, termTokens);
+        BinaryCodec.writeIntTable(out, tokenTerms);
+    }
+
+    static FuzzyTermIndex readFrom(ByteBuffer in) {
+        String[] tokens = BinaryCodec.readStrings(in).toArray(new String[0]);
+        int grams = in.getInt();
+        Map<String, int[]> trigramTokens = new HashMap<>(grams * 4 / 3 + 1);
+        for (int i = 0; i < grams; i++) {
+            trigramTokens.put(BinaryCodec.readString(in), BinaryCodec.readInts(in));
+        }
+        int[][] termTokens = BinaryCodec.readIntTable(in);
+        int[][] tokenTerms = BinaryCodec.readIntTable(in);
+        return new FuzzyTermIndex(tokens, trigramTokens, termTokens, tokenTerms);
+    }
+
+    /**
+     * Returns the ids of every term token that equals, or is within the Jaro-Winkler threshold of,
+     * some word of the encoded lowercase text, with the number of Jaro-Winkler comparisons it took.
+     * Words whose near tokens are already known cost no comparisons.
+     */
+    NearTokens matchTokens(TokenDictionary dictionary, int[] text) {
+        BitSet matched = new BitSet(tokens.length);
+        if (tokens.length == 0) {
+            return new NearTokens(matched, 0);
+        }
+        int comparisons = 0;
+        for (int code : text) {
+            if (!TokenDictionary.isWord(code)) {
+                continue;
+            }
+            String token = dictionary.token(code);
+            if (token.length() < MIN_TOKEN_LENGTH) {
+                continue;
+            }
+            int[] near = nearByToken.get(token);
+            if (near == null) {
+                List<Integer> found = new ArrayList<>();
+                if (token.length() < FULL_SCAN_BELOW_LENGTH) {
+                    for (int id = 0; id < tokens.length; id++) {
+                        if (similarity.apply(token, tokens[id]) > MIN_SIMILARITY) {
+                            found.add(id);
+                        }
+                    }
+                    comparisons += tokens.length;
+                } else {
+                    Set<Integer> compared = new HashSet<>();
+                    for (String gram : trigrams(token)) {
+                        for (int id : trigramTokens.getOrDefault(gram, NO_IDS)) {
+                            if (compared.add(id) && similarity.apply(token, tokens[id]) > MIN_SIMILARITY) {
+                                found.add(id);
+                            }
+                        }
+                    }
+                    comparisons += compared.size();
+                }
+                near = found.isEmpty() ? NO_IDS : toArray(found);
+                if (nearByToken.size() >= MAX_REMEMBERED_TOKENS) {
+                    nearByToken.clear();
+                }
+                nearByToken.put(token, near);
+            }
+            for (int id : near) {
+                matched.set(id);
+            }
+        }
+        return new NearTokens(matched, comparisons);
+    }
+
+    /**
+     * Returns the ids of every term with at least one token in {@code matchedTokens}.
+     */
+    BitSet touchedTerms(BitSet matchedTokens) {
+        BitSet touched = new BitSet(termTokens.length);
+        for (int id = matchedTokens.nextSetBit(0); id >= 0; id = matchedTokens.nextSetBit(id + 1)) {
+            for (int termId : tokenTerms[id]) {
+                touched.set(termId);
+            }
+        }
+        return touched;
+    }
+
+    /**
+     * Returns the ids of every term all of whose tokens are in {@code matchedTokens}.
+     */
+    BitSet completeTerms(BitSet matchedTokens) {
+        BitSet complete = new BitSet(termTokens.length);
+        for (int id = matchedTokens.nextSetBit(0); id >= 0; id = matchedTokens.nextSetBit(id + 1)) {
+            for (int termId : tokenTerms[id]) {
+                if (!complete.get(termId) && matchedTokenCount(termId, matchedTokens) == termTokens[termId].length) {
+                    complete.set(termId);
+                }
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Returns the fraction of the term's tokens present in {@code matchedTokens}.
+     */
+    double coverage(int termId, BitSet matchedTokens) {
+        int[] ids = termTokens[termId];
+        return ids.length == 0 ? 0.0 : (double) matchedTokenCount(termId, matchedTokens) / ids.length;
+    }
+
+    private int matchedTokenCount(int termId, BitSet matchedTokens) {
+        int count = 0;
+        for (int id : termTokens[termId]) {
+            if (matchedTokens.get(id)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean alphanumeric = i < text.length() && TokenDictionary.isWordChar(text.charAt(i));
+            if (alphanumeric && start < 0) {
+                start = i;
+            } else if (!alphanumeric && start >= 0) {
+                if (i - start >= MIN_TOKEN_LENGTH) {
+                    tokens.add(text.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> trigrams(String token) {
+        List<String> grams = new ArrayList<>(token.length() - 2);
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            grams.add(token.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    record NearTokens(BitSet tokens, int comparisons) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.vbot.navigator.model;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * How the BIAN alignment of a spec changed against a baseline version of the same spec. Operations
+ * are matched by HTTP method and path.
+ *
+ * @param added     operations only in the spec
+ * @param removed   operations only in the baseline, as the baseline aligned them
+ * @param remapped  operations whose content changed and whose best domain changed with it
+ * @param modified  operations whose content changed but which kept their best domain
+ * @param unchanged operations with the same content in both versions
+ */
+public record AlignmentDelta(Path specPath,
+                             Path baselinePath,
+                             List<OperationAlignment> added,
+                             List<OperationAlignment> removed,
+                             List<Change> remapped,
+                             List<Change> modified,
+                             List<OperationAlignment> unchanged) {
+
+    /**
+     * One operation as aligned in the baseline and in the spec.
+     */
+    public record Change(OperationAlignment baseline, OperationAlignment current) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.vbot.navigator.model;
+
+/**
+ * Tuning for a single alignment run.
+ *
+ * @param parallelism       number of threads scoring operations; 1 scores on the calling thread
+ * @param topK              number of ranked domain candidates kept per operation; 1 keeps only the best
+ * @param scorer            how candidate domains are scored
+ * @param topAreas          number of best-matching business areas whose domains are scored; 0 scores
+ *                          every candidate domain
+ * @param measureAreaRecall whether to also score every candidate and record how often the best domain
+ *                          lies in the kept areas, for tuning {@code topAreas}
+ */
+public record AlignmentOptions(int parallelism, int topK, ScorerMode scorer, int topAreas, boolean measureAreaRecall) {
+
+    public AlignmentOptions(int parallelism, int topK) {
+        this(parallelism, topK, ScorerMode.KEYWORD);
+    }
+
+    public AlignmentOptions(int parallelism, int topK, ScorerMode scorer) {
+        this(parallelism, topK, scorer, 0, false);
+    }
+
+    public static AlignmentOptions defaults() {
+        return new AlignmentOptions(1, 1);
+    }
+
+    public AlignmentOptions withTopK(int topK) {
+        return new AlignmentOptions(parallelism, topK, scorer, topAreas, measureAreaRecall);
+    }
+}
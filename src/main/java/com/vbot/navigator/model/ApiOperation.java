@@ -1,28 +1,58 @@
 package com.vbot.navigator.model;
 
-import java.util.Collections;
+import com.vbot.navigator.util.ContentHash;
+import com.vbot.navigator.util.TokenDictionary;
+
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * One operation of a spec, in a compact form. The path, method and tags are interned, and the
+ * lowercase searchable text (path, summary, description and tags) is tokenized once into ids of the
+ * run's {@link TokenDictionary}. Only the strings the reports print are kept as they were; the
+ * description survives only in the encoded text.
+ */
 public class ApiOperation {
     private final String path;
     private final String httpMethod;
     private final String operationId;
     private final String summary;
-    private final String description;
     private final List<String> tags;
+    private final TokenDictionary dictionary;
+    private final int[] text;
+    private final int[][] tagText;
 
+    /**
+     * Encodes the operation into {@code dictionary}, which operations of the same run share.
+     */
     public ApiOperation(String path,
                         String httpMethod,
                         String operationId,
                         String summary,
                         String description,
-                        List<String> tags) {
-        this.path = path;
-        this.httpMethod = httpMethod;
+                        List<String> tags,
+                        TokenDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.path = dictionary.intern(path);
+        this.httpMethod = dictionary.intern(httpMethod);
         this.operationId = operationId;
         this.summary = summary;
-        this.description = description;
-        this.tags = tags == null ? List.of() : List.copyOf(tags);
+
+        List<String> internedTags = new ArrayList<>(tags == null ? 0 : tags.size());
+        if (tags != null) {
+            for (String tag : tags) {
+                internedTags.add(dictionary.intern(tag));
+            }
+        }
+        this.tags = List.copyOf(internedTags);
+        this.tagText = new int[this.tags.size()][];
+        for (int t = 0; t < tagText.length; t++) {
+            tagText[t] = dictionary.encodePhrase(this.tags.get(t).toLowerCase());
+        }
+
+        String tagLine = String.join(" ", this.tags);
+        this.text = dictionary.encode(
+                (path + " " + nullToEmpty(summary) + " " + nullToEmpty(description) + " " + tagLine).toLowerCase());
     }
 
     public String path() {
@@ -41,20 +71,51 @@ public class ApiOperation {
         return summary;
     }
 
-    public String description() {
-        return description;
+    public List<String> tags() {
+        return tags;
     }
 
-    public List<String> tags() {
-        return Collections.unmodifiableList(tags);
+    public TokenDictionary dictionary() {
+        return dictionary;
     }
 
+    /**
+     * The encoded searchable text. Shared with this operation; do not modify.
+     */
+    public int[] textTokens() {
+        return text;
+    }
+
+    /**
+     * The encoded lowercase tags, in the order of {@link #tags()}. Shared with this operation; do not
+     * modify.
+     */
+    public int[][] tagTokens() {
+        return tagText;
+    }
+
+    /**
+     * The lowercase text the alignment matches against, decoded from the tokens.
+     */
     public String searchableText() {
-        String tagText = String.join(" ", tags);
-        return (path + " " + nullToEmpty(summary) + " " + nullToEmpty(description) + " " + tagText).toLowerCase();
+        return dictionary.decode(text);
+    }
+
+    /**
+     * Content hash of everything the alignment looks at: path, method, summary, the searchable text
+     * (which holds the description) and tags.
+     */
+    public String fingerprint() {
+        return ContentHash.sha256()
+                .add(path)
+                .add(httpMethod)
+                .add(summary)
+                .add(searchableText())
+                .add(tags)
+                .hex();
     }
 
-    private String nullToEmpty(String value) {
+    private static String nullToEmpty(String value) {
         return value == null ? "" : value;
     }
 }
@@ -12,6 +12,7 @@ public class BianServiceDomain {
 
     private String code;
     private String name;
+    private String businessArea;
     private List<String> keywords = new ArrayList<>();
     private List<String> capabilities = new ArrayList<>();
 
@@ -31,6 +32,18 @@ public class BianServiceDomain {
         this.name = name;
     }
 
+    /**
+     * The BIAN business area the service domain belongs to, such as "Sales and Service", or
+     * {@code null} when the catalogue does not say.
+     */
+    public String getBusinessArea() {
+        return businessArea;
+    }
+
+    public void setBusinessArea(String businessArea) {
+        this.businessArea = businessArea;
+    }
+
     public List<String> getKeywords() {
         return Collections.unmodifiableList(keywords);
     }
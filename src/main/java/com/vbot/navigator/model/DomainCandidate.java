@@ -0,0 +1,6 @@
+package com.vbot.navigator.model;
+
+import java.util.List;
+
+public record DomainCandidate(BianServiceDomain domain, double score, List<String> matchedKeywords) {
+}
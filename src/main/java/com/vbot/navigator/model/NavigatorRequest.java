@@ -2,5 +2,20 @@ package com.vbot.navigator.model;
 
 import java.nio.file.Path;
 
-public record NavigatorRequest(Path specPath, Path outputDir, boolean generateScaffolds) {
+public record NavigatorRequest(Path specPath,
+                               Path outputDir,
+                               boolean generateScaffolds,
+                               boolean useCache,
+                               AlignmentOptions alignmentOptions,
+                               SpecReaderMode readerMode,
+                               boolean binaryReport,
+                               boolean pruneScaffolds,
+                               OutputArchive archive) {
+
+    /**
+     * The same settings applied to another spec and output directory.
+     */
+    public NavigatorRequest withSpec(Path specPath, Path outputDir) {
+        return new NavigatorRequest(specPath, outputDir, generateScaffolds, useCache, alignmentOptions, readerMode, binaryReport, pruneScaffolds, archive);
+    }
 }
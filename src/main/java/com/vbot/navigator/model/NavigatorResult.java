@@ -0,0 +1,35 @@
+package com.vbot.navigator.model;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What a run leaves behind once its reports are written: the operation count per BIAN domain, in
+ * catalogue order. The alignments themselves are not kept, so a portfolio or a watch process holds
+ * only these counts for each spec.
+ */
+public record NavigatorResult(Path specPath, Path outputDir, int operationCount, List<DomainCount> domains) {
+
+    public NavigatorResult {
+        domains = List.copyOf(domains);
+    }
+
+    /**
+     * Summarizes the alignments of one run.
+     */
+    public static NavigatorResult of(Path specPath, Path outputDir, int operationCount, List<DomainAlignment> alignments) {
+        List<DomainCount> domains = new ArrayList<>(alignments.size());
+        for (DomainAlignment alignment : alignments) {
+            domains.add(new DomainCount(alignment.domain().getCode(), alignment.domain().getName(),
+                    alignment.operations().size()));
+        }
+        return new NavigatorResult(specPath, outputDir, operationCount, domains);
+    }
+
+    /**
+     * The number of operations of the spec aligned to one domain.
+     */
+    public record DomainCount(String code, String name, int operations) {
+    }
+}
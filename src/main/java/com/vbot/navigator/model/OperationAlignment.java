@@ -7,12 +7,25 @@ public class OperationAlignment {
     private final BianServiceDomain domain;
     private final double score;
     private final List<String> matchedKeywords;
+    private final List<DomainCandidate> candidates;
+    private final double margin;
 
     public OperationAlignment(ApiOperation operation, BianServiceDomain domain, double score, List<String> matchedKeywords) {
+        this(operation, domain, score, matchedKeywords, List.of(), 0);
+    }
+
+    public OperationAlignment(ApiOperation operation,
+                              BianServiceDomain domain,
+                              double score,
+                              List<String> matchedKeywords,
+                              List<DomainCandidate> candidates,
+                              double margin) {
         this.operation = operation;
         this.domain = domain;
         this.score = score;
         this.matchedKeywords = matchedKeywords;
+        this.candidates = candidates;
+        this.margin = margin;
     }
 
     public ApiOperation operation() {
@@ -30,4 +43,19 @@ public class OperationAlignment {
     public List<String> matchedKeywords() {
         return matchedKeywords;
     }
+
+    /**
+     * Best-ranked domains, highest score first, when more than one candidate was requested; empty otherwise.
+     */
+    public List<DomainCandidate> candidates() {
+        return candidates;
+    }
+
+    /**
+     * Score difference between the first and second candidate (or the first candidate's score when it
+     * had no runner-up). A small margin flags an ambiguous mapping.
+     */
+    public double margin() {
+        return margin;
+    }
 }
@@ -0,0 +1,10 @@
+package com.vbot.navigator.model;
+
+/**
+ * Which outputs are streamed into the run's single zip archive instead of separate files.
+ */
+public enum OutputArchive {
+    NONE,
+    SCAFFOLDS,
+    ALL
+}
@@ -0,0 +1,17 @@
+package com.vbot.navigator.model;
+
+/**
+ * How {@code BianAlignmentService} scores the candidate domains of an operation. Both produce the same
+ * alignments.
+ */
+public enum ScorerMode {
+    /**
+     * Walks every keyword of every candidate domain and builds its matched-keyword list.
+     */
+    KEYWORD,
+    /**
+     * Counts each candidate's keyword hits with word-wise AND and popcount over keyword bitsets, then
+     * runs the keyword scorer only on the domains that can still make the top K.
+     */
+    BITSET
+}
@@ -0,0 +1,15 @@
+package com.vbot.navigator.model;
+
+/**
+ * How {@code OpenApiSpecReader} extracts operations from a spec.
+ */
+public enum SpecReaderMode {
+    /**
+     * Full swagger-parser model with $ref resolution and validation messages.
+     */
+    SWAGGER,
+    /**
+     * Jackson streaming walk over {@code paths} only; memory stays bounded by one path item.
+     */
+    STREAMING
+}
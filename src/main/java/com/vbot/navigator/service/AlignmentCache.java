@@ -0,0 +1,169 @@
+package com.vbot.navigator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vbot.navigator.config.CatalogueSnapshot;
+import com.vbot.navigator.model.ApiOperation;
+import com.vbot.navigator.model.BianServiceDomain;
+import com.vbot.navigator.model.DomainCandidate;
+import com.vbot.navigator.model.OperationAlignment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * On-disk cache of operation alignments, keyed by {@link ApiOperation#fingerprint()}. The file records
+ * the catalogue fingerprint, the number of ranked candidates kept, the number of business areas kept
+ * and a format version; when any of them differs from the current run the whole cache is discarded.
+ * Lookups and stores are safe from parallel scoring threads.
+ */
+public final class AlignmentCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AlignmentCache.class);
+
+    /**
+     * Bump whenever scoring changes in a way that would make previously cached alignments wrong.
+     */
+    private static final int FORMAT_VERSION = 5;
+
+    private final Path file;
+    private final CatalogueSnapshot catalogue;
+    private final int topK;
+    private final int topAreas;
+    private final Map<String, Entry> previous;
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private AlignmentCache(Path file, CatalogueSnapshot catalogue, int topK, int topAreas, Map<String, Entry> previous) {
+        this.file = file;
+        this.catalogue = catalogue;
+        this.topK = topK;
+        this.topAreas = topAreas;
+        this.previous = previous;
+    }
+
+    public static AlignmentCache disabled() {
+        return new AlignmentCache(null, null, 1, 0, Map.of());
+    }
+
+    /**
+     * @param topAreas the business areas kept per operation, 0 for all; caches written before areas
+     *                 existed read as 0
+     */
+    static AlignmentCache open(Path file, CatalogueSnapshot catalogue, int topK, int topAreas, ObjectMapper mapper) {
+        if (!Files.exists(file)) {
+            return new AlignmentCache(file, catalogue, topK, topAreas, Map.of());
+        }
+        try {
+            CacheFile data = mapper.readValue(file.toFile(), CacheFile.class);
+            if (data.formatVersion() != FORMAT_VERSION
+                    || data.topK() != topK
+                    || data.topAreas() != topAreas
+                    || !catalogue.fingerprint().equals(data.catalogueFingerprint())) {
+                log.info("Discarding alignment cache {}: catalogue or scoring options changed.", file.toAbsolutePath());
+                return new AlignmentCache(file, catalogue, topK, topAreas, Map.of());
+            }
+            return new AlignmentCache(file, catalogue, topK, topAreas, data.entries() == null ? Map.of() : data.entries());
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable alignment cache {}.", file.toAbsolutePath(), e);
+            return new AlignmentCache(file, catalogue, topK, topAreas, Map.of());
+        }
+    }
+
+    /**
+     * The catalogue version the cached entries refer to.
+     */
+    CatalogueSnapshot catalogue() {
+        return catalogue;
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the cached alignment for the operation, or {@code null} on a miss.
+     */
+    OperationAlignment lookup(String fingerprint, ApiOperation operation) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Entry entry = previous.get(fingerprint);
+        if (entry == null) {
+            entry = current.get(fingerprint);
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        current.putIfAbsent(fingerprint, entry);
+        List<DomainCandidate> candidates = new ArrayList<>(entry.candidates().size());
+        for (Entry candidate : entry.candidates()) {
+            candidates.add(new DomainCandidate(domain(candidate.domainIndex()), candidate.score(), candidate.matchedKeywords()));
+        }
+        return new OperationAlignment(operation, domain(entry.domainIndex()), entry.score(), entry.matchedKeywords(), candidates, entry.margin());
+    }
+
+    void store(String fingerprint, OperationAlignment alignment) {
+        if (!isEnabled()) {
+            return;
+        }
+        List<Entry> candidates = new ArrayList<>(alignment.candidates().size());
+        for (DomainCandidate candidate : alignment.candidates()) {
+            candidates.add(new Entry(catalogue.indexOf(candidate.domain()), candidate.score(), List.copyOf(candidate.matchedKeywords()), List.of(), 0));
+        }
+        current.put(fingerprint, new Entry(
+                catalogue.indexOf(alignment.domain()),
+                alignment.score(),
+                List.copyOf(alignment.matchedKeywords()),
+                candidates,
+                alignment.margin()));
+    }
+
+    private BianServiceDomain domain(int index) {
+        return index < 0 ? catalogue.fallbackDomain() : catalogue.domains().get(index);
+    }
+
+    /**
+     * Writes the entries used by this run, dropping those for operations that no longer exist.
+     */
+    void save(ObjectMapper mapper) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            mapper.writeValue(file.toFile(), new CacheFile(FORMAT_VERSION, catalogue.fingerprint(), topK, topAreas, new TreeMap<>(current)));
+        } catch (IOException e) {
+            log.warn("Failed to write alignment cache {}.", file.toAbsolutePath(), e);
+        }
+    }
+
+    record Entry(int domainIndex, double score, List<String> matchedKeywords, List<Entry> candidates, double margin) {
+
+        Entry {
+            candidates = candidates == null ? List.of() : candidates;
+        }
+    }
+
+    record CacheFile(int formatVersion, String catalogueFingerprint, int topK, int topAreas, Map<String, Entry> entries) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.vbot.navigator.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning the alignment stage of one run: cache lookup, matching and scoring, overlapped
+ * with parsing the spec.
+ */
+@Name("com.vbot.navigator.Alignment")
+@Label("Alignment")
+@Category({"Navigator"})
+@Description("Aligning the operations of one spec to BIAN domains")
+final class AlignmentEvent extends Event {
+
+    @Label("Spec")
+    String spec;
+
+    @Label("Operations")
+    int operations;
+
+    @Label("Fallback Assignments")
+    long fallbacks;
+
+    @Label("Jaro-Winkler Comparisons")
+    long fuzzyComparisons;
+}
@@ -0,0 +1,167 @@
+package com.vbot.navigator.service;
+
+import com.vbot.navigator.model.ApiOperation;
+import com.vbot.navigator.model.OperationAlignment;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Parse, align and accumulate as overlapping stages. The source runs on its own thread and hands
+ * operations through a bounded queue to {@code workers} alignment threads, which add each aligned
+ * operation straight to the {@link DomainAccumulator} with its position in the spec. At most
+ * {@code capacity} operations are in flight between the source and the accumulator, so a slow stage
+ * holds up the ones before it instead of the spec piling up in memory, and the wall time approaches
+ * that of the slowest stage. The calling thread only waits for the stages to finish.
+ */
+final class AlignmentPipeline {
+
+    private static final Queued END = new Queued(-1, null);
+
+    private final int workers;
+    private final int capacity;
+
+    AlignmentPipeline(int workers, int capacity) {
+        this.workers = Math.max(1, workers);
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * The stage that produces operations, typically the spec reader.
+     */
+    @FunctionalInterface
+    interface Source {
+        void forEach(Consumer<ApiOperation> consumer);
+    }
+
+    /**
+     * @param parseEndNanos {@link System#nanoTime()} when the source had produced its last operation
+     */
+    record Result(DomainAccumulator domains, long parseEndNanos) {
+    }
+
+    Result run(Source source, Function<ApiOperation, OperationAlignment> aligner, DomainAccumulator domains) {
+        BlockingQueue<Queued> parsed = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<Message> progress = new ArrayBlockingQueue<>(2 * workers + 2);
+        Semaphore inFlight = new Semaphore(capacity);
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers + 1);
+        try {
+            pool.execute(() -> produce(source, parsed, progress, inFlight));
+            for (int i = 0; i < workers; i++) {
+                pool.execute(() -> align(aligner, domains, parsed, progress, inFlight));
+            }
+            return new Result(domains, awaitStages(progress));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while aligning", e);
+        } finally {
+            pool.shutdownNow();
+            pool.close();
+        }
+    }
+
+    private void produce(Source source, BlockingQueue<Queued> parsed, BlockingQueue<Message> progress, Semaphore inFlight) {
+        long[] sequence = new long[1];
+        try {
+            source.forEach(operation -> {
+                try {
+                    inFlight.acquire();
+                    parsed.put(new Queued(sequence[0]++, operation));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new PipelineStopped();
+                }
+            });
+            long parseEnd = System.nanoTime();
+            for (int i = 0; i < workers; i++) {
+                parsed.put(END);
+            }
+            progress.put(new SourceDone(sequence[0], parseEnd));
+        } catch (PipelineStopped e) {
+            // the accumulator gave up; nothing left to report
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            progress.offer(new Failed(e));
+        }
+    }
+
+    private static void align(Function<ApiOperation, OperationAlignment> aligner,
+                              DomainAccumulator domains,
+                              BlockingQueue<Queued> parsed,
+                              BlockingQueue<Message> progress,
+                              Semaphore inFlight) {
+        try {
+            for (Queued next = parsed.take(); next != END; next = parsed.take()) {
+                domains.add(next.sequence(), aligner.apply(next.operation()));
+                inFlight.release();
+            }
+            progress.put(new WorkerDone());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            progress.offer(new Failed(e));
+        }
+    }
+
+    /**
+     * Waits until the source and every worker have finished and returns when parsing ended, or rethrows
+     * the first failure.
+     */
+    private long awaitStages(BlockingQueue<Message> progress) throws InterruptedException {
+        long parseEnd = 0;
+        int running = workers + 1;
+        while (running > 0) {
+            switch (progress.take()) {
+                case SourceDone done -> parseEnd = done.parseEndNanos();
+                case WorkerDone done -> { }
+                case Failed failed -> {
+                    if (failed.error() instanceof Error error) {
+                        throw error;
+                    }
+                    throw (RuntimeException) failed.error();
+                }
+            }
+            running--;
+        }
+        return parseEnd;
+    }
+
+    private record Queued(long sequence, ApiOperation operation) {
+    }
+
+    private sealed interface Message permits SourceDone, WorkerDone, Failed {
+    }
+
+    /**
+     * The source is done after {@code operations} operations.
+     */
+    private record SourceDone(long operations, long parseEndNanos) implements Message {
+    }
+
+    /**
+     * A worker is done.
+     */
+    private record WorkerDone() implements Message {
+    }
+
+    /**
+     * @param error a {@link RuntimeException} or an {@link Error}
+     */
+    private record Failed(Throwable error) implements Message {
+    }
+
+    private static final class PipelineStopped extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private PipelineStopped() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.vbot.navigator.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.vbot.navigator.config.BianDomainCatalogue;
+import com.vbot.navigator.config.CatalogueSnapshot;
+import com.vbot.navigator.model.AlignmentOptions;
+import com.vbot.navigator.model.ApiOperation;
+import com.vbot.navigator.model.DomainAlignment;
+import com.vbot.navigator.model.OperationAlignment;
+import com.vbot.navigator.util.TokenDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves alignments over HTTP with the JDK's built-in server, one virtual thread per request.
+ * <ul>
+ *   <li>{@code POST /align/operation}: a JSON operation ({@code path}, {@code httpMethod},
+ *   {@code operationId}, {@code summary}, {@code description}, {@code tags}).</li>
+ *   <li>{@code POST /align/spec}: a whole OpenAPI document, YAML or JSON, read with the streaming
+ *   reader.</li>
+ *   <li>{@code POST /catalogue/reload}: re-reads the catalogue source.</li>
+ *   <li>{@code GET /health}: the loaded catalogue.</li>
+ * </ul>
+ * Both align endpoints answer with the {@code domains} array of {@code alignment.json} and accept
+ * {@code ?topK=} to override the configured number of candidates. Every request aligns against the
+ * catalogue snapshot current when it started; a reload swaps in a new immutable snapshot, so requests
+ * in flight are never affected by it. Nothing is cached or written to disk, and each request encodes
+ * its operations into its own {@link TokenDictionary} so request text does not accumulate.
+ */
+@Service
+public class AlignmentServer {
+
+    private static final Logger log = LoggerFactory.getLogger(AlignmentServer.class);
+    private static final int MAX_BODY_BYTES = 32 << 20;
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final OpenApiSpecReader specReader;
+    private final BianAlignmentService alignmentService;
+    private final BianDomainCatalogue catalogue;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public AlignmentServer(OpenApiSpecReader specReader, BianAlignmentService alignmentService, BianDomainCatalogue catalogue) {
+        this.specReader = specReader;
+        this.alignmentService = alignmentService;
+        this.catalogue = catalogue;
+    }
+
+    /**
+     * Starts the server; it runs until {@link HttpServer#stop(int)} is called.
+     */
+    public HttpServer start(InetSocketAddress address, AlignmentOptions options) throws IOException {
+        // Headers and body go out in separate writes; with Nagle's algorithm on, every response would
+        // wait for the client's delayed ACK (about 40 ms). Read once when the first server is created.
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+        HttpServer server = HttpServer.create(address, 0);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/align/operation", handler("POST", exchange -> alignOperation(exchange, options)));
+        server.createContext("/align/spec", handler("POST", exchange -> alignSpec(exchange, options)));
+        server.createContext("/catalogue/reload", handler("POST", this::reload));
+        server.createContext("/health", handler("GET", this::health));
+        server.start();
+        log.info("Serving alignments on http://{}:{}/ ({} BIAN domains)",
+                address.getHostString(), server.getAddress().getPort(), catalogue.domains().size());
+        return server;
+    }
+
+    /**
+     * Starts the server and blocks until the process shuts down.
+     */
+    public void serve(InetSocketAddress address, AlignmentOptions options) throws IOException, InterruptedException {
+        HttpServer server = start(address, options);
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            stopped.countDown();
+        }, "alignment-server-shutdown"));
+        stopped.await();
+    }
+
+    private void alignOperation(HttpExchange exchange, AlignmentOptions options) throws IOException {
+        OperationRequest request = mapper.readValue(readBody(exchange), OperationRequest.class);
+        if (request.path() == null || request.path().isBlank()) {
+            throw new IllegalArgumentException("'path' is required");
+        }
+        ApiOperation operation = new ApiOperation(request.path(), request.httpMethod(), request.operationId(),
+                request.summary(), request.description(), request.tags(), new TokenDictionary());
+        CatalogueSnapshot snapshot = catalogue.snapshot();
+        List<OperationAlignment> aligned = alignmentService.align(snapshot, List.of(operation),
+                new AlignmentOptions(1, topK(exchange, options), options.scorer(), options.topAreas(), false));
+        respondWithDomains(exchange, snapshot, 1, NavigatorService.groupByDomain(snapshot, aligned));
+    }
+
+    private void alignSpec(HttpExchange exchange, AlignmentOptions options) throws IOException {
+        List<ApiOperation> operations;
+        try {
+            operations = specReader.readOperations(readBody(exchange), "request body", new TokenDictionary());
+        } catch (IllegalStateException e) {
+            // The reader reports an unreadable spec this way; here the spec is the client's request body.
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        CatalogueSnapshot snapshot = catalogue.snapshot();
+        List<OperationAlignment> aligned = alignmentService.align(snapshot, operations,
+                options.withTopK(topK(exchange, options)));
+        respondWithDomains(exchange, snapshot, operations.size(), NavigatorService.groupByDomain(snapshot, aligned));
+    }
+
+    private void reload(HttpExchange exchange) throws IOException {
+        boolean reloaded = catalogue.reload();
+        respond(exchange, reloaded ? 200 : 500, json -> {
+            json.writeBooleanField("reloaded", reloaded);
+            writeCatalogue(json, catalogue.snapshot());
+        });
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, json -> {
+            json.writeStringField("status", "UP");
+            writeCatalogue(json, catalogue.snapshot());
+        });
+    }
+
+    private void respondWithDomains(HttpExchange exchange,
+                                    CatalogueSnapshot snapshot,
+                                    int operationCount,
+                                    List<DomainAlignment> alignments) throws IOException {
+        respond(exchange, 200, json -> {
+            json.writeStringField("catalogue", snapshot.fingerprint());
+            json.writeNumberField("operations", operationCount);
+            GenerationPlanWriter.writeDomains(json, alignments);
+        });
+    }
+
+    private static void writeCatalogue(JsonGenerator json, CatalogueSnapshot snapshot) throws IOException {
+        json.writeStringField("catalogue", snapshot.fingerprint());
+        json.writeNumberField("domains", snapshot.domains().size());
+    }
+
+    private int topK(HttpExchange exchange, AlignmentOptions options) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return options.topK();
+        }
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("topK=")) {
+                String value = parameter.substring("topK=".length());
+                try {
+                    int topK = Integer.parseInt(value);
+                    if (topK > 0) {
+                        return topK;
+                    }
+                } catch (NumberFormatException ignored) {
+                    // reported below
+                }
+                throw new IllegalArgumentException("topK expects a positive integer but was '" + value + "'");
+            }
+        }
+        return options.topK();
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new BodyTooLargeException();
+            }
+            return body;
+        }
+    }
+
+    private HttpHandler handler(String method, Endpoint endpoint) {
+        return exchange -> {
+            try {
+                if (!method.equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    respondWithError(exchange, 405, exchange.getRequestMethod() + " is not supported, use " + method);
+                    return;
+                }
+                endpoint.handle(exchange);
+            } catch (BodyTooLargeException e) {
+                respondWithError(exchange, 413, "Request body exceeds " + MAX_BODY_BYTES + " bytes");
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                respondWithError(exchange, 400, e.getMessage());
+            } catch (IOException e) {
+                log.debug("Connection error on {}", exchange.getRequestURI(), e);
+            } catch (RuntimeException e) {
+                log.warn("Failed to handle {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+                respondWithError(exchange, 500, "Internal error");
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private void respondWithError(HttpExchange exchange, int status, String message) {
+        try {
+            respond(exchange, status, json -> json.writeStringField("error", message));
+        } catch (IOException e) {
+            log.debug("Could not send {} response for {}", status, exchange.getRequestURI(), e);
+        }
+    }
+
+    /**
+     * Sends a JSON object whose fields are written by {@code body}. The response is buffered so it
+     * can be sent with a known length.
+     */
+    private void respond(HttpExchange exchange, int status, JsonBody body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        try (JsonGenerator json = mapper.getFactory().createGenerator(buffer, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            body.write(json);
+            json.writeEndObject();
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, buffer.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            buffer.writeTo(out);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface JsonBody {
+        void write(JsonGenerator json) throws IOException;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record OperationRequest(String path,
+                                    String httpMethod,
+                                    String operationId,
+                                    String summary,
+                                    String description,
+                                    List<String> tags) {
+    }
+
+    private static final class BodyTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -1,110 +1,417 @@
 package com.vbot.navigator.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vbot.navigator.config.BianDomainCatalogue;
+import com.vbot.navigator.config.BusinessAreaIndex;
+import com.vbot.navigator.config.CatalogueMatcher;
+import com.vbot.navigator.config.CatalogueSnapshot;
+import com.vbot.navigator.model.AlignmentOptions;
 import com.vbot.navigator.model.ApiOperation;
 import com.vbot.navigator.model.BianServiceDomain;
+import com.vbot.navigator.model.DomainCandidate;
 import com.vbot.navigator.model.OperationAlignment;
-import org.apache.commons.text.similarity.JaroWinklerDistance;
+import com.vbot.navigator.model.ScorerMode;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
+/**
+ * Scores operations against the BIAN catalogue. A domain earns points only for its own keywords, name
+ * and code: occurring in the text or a tag, or (keywords and name tokens) within the typo threshold of
+ * a text token. A domain with none of these scores 0, below {@link #MIN_SCORE}, so only the matcher's
+ * candidates are scored and an operation without candidates goes straight to the fallback domain.
+ * <p>
+ * This deliberately differs from the original exhaustive scorer, which compared each keyword and name
+ * with the whole searchable text by Jaro-Winkler <em>distance</em>. That gave points to keywords the
+ * text did not resemble, so a domain without any hit could win (for example {@code GET /health} went
+ * to Lending at 0.35). Such operations are now unmapped.
+ */
 @Component
 public class BianAlignmentService {
 
     private static final double MIN_SCORE = 0.3;
+    private static final String CACHE_FILE = "alignment-cache.json";
+    private static final Comparator<Ranked> WORST_FIRST = Comparator
+            .comparingDouble((Ranked r) -> r.match().score())
+            .thenComparing(Comparator.comparingInt(Ranked::domainIndex).reversed());
 
     private final BianDomainCatalogue catalogue;
-    private final JaroWinklerDistance distance = new JaroWinklerDistance();
+    private final ObjectMapper cacheMapper = new ObjectMapper();
 
     public BianAlignmentService(BianDomainCatalogue catalogue) {
         this.catalogue = catalogue;
     }
 
     public List<OperationAlignment> align(List<ApiOperation> operations) {
-        List<OperationAlignment> aligned = new ArrayList<>();
-        for (ApiOperation op : operations) {
-            aligned.add(bestDomainFor(op));
-        }
-        return aligned;
+        return align(operations, AlignmentOptions.defaults());
+    }
+
+    public List<OperationAlignment> align(List<ApiOperation> operations, AlignmentOptions options) {
+        return align(operations, options, AlignmentCache.disabled());
+    }
+
+    /**
+     * Aligns operations, reusing cached alignments for operations whose fingerprint is already in the
+     * cache and recording fresh ones.
+     * <p>
+     * With a parallelism above 1, operations are scored on a dedicated fork-join pool of that size.
+     * Scoring only reads the immutable catalogue matcher and keeps all per-operation state local, so
+     * operations are scored independently; results are always returned in input order. The whole call
+     * scores against one catalogue snapshot: the cache's when it is enabled, otherwise the current one.
+     */
+    public List<OperationAlignment> align(List<ApiOperation> operations, AlignmentOptions options, AlignmentCache cache) {
+        return align(operations, options, cache, RunMetrics.disabled());
+    }
+
+    /**
+     * Like {@link #align(List, AlignmentOptions, AlignmentCache)}, counting the operations, keyword
+     * hits, fuzzy comparisons and fallback assignments into {@code metrics}.
+     */
+    public List<OperationAlignment> align(List<ApiOperation> operations,
+                                          AlignmentOptions options,
+                                          AlignmentCache cache,
+                                          RunMetrics metrics) {
+        return align(snapshotFor(cache), operations, options, cache, metrics);
+    }
+
+    /**
+     * The catalogue snapshot a run with this cache scores against: the cache's when it is enabled,
+     * otherwise the current one.
+     */
+    public CatalogueSnapshot snapshotFor(AlignmentCache cache) {
+        return cache.isEnabled() ? cache.catalogue() : catalogue.snapshot();
     }
 
-    private OperationAlignment bestDomainFor(ApiOperation op) {
-        String searchableText = op.searchableText();
-        double bestScore = Double.NEGATIVE_INFINITY;
-        BianServiceDomain bestDomain = catalogue.fallbackDomain();
-        List<String> matchedKeywords = List.of();
+    /**
+     * Aligns operations against a catalogue snapshot the caller already captured, without a cache.
+     */
+    public List<OperationAlignment> align(CatalogueSnapshot snapshot, List<ApiOperation> operations, AlignmentOptions options) {
+        return align(snapshot, operations, options, AlignmentCache.disabled(), RunMetrics.disabled());
+    }
 
-        for (BianServiceDomain domain : catalogue.domains()) {
-            ScoredMatch match = score(domain, searchableText, op.tags());
-            if (match.score() > bestScore) {
-                bestScore = match.score();
-                bestDomain = domain;
-                matchedKeywords = match.keywords();
+    private List<OperationAlignment> align(CatalogueSnapshot snapshot,
+                                           List<ApiOperation> operations,
+                                           AlignmentOptions options,
+                                           AlignmentCache cache,
+                                           RunMetrics metrics) {
+        OperationAlignment[] aligned = new OperationAlignment[operations.size()];
+        if (options.parallelism() <= 1 || operations.size() < 2) {
+            for (int i = 0; i < aligned.length; i++) {
+                aligned[i] = alignCached(snapshot, operations.get(i), options, cache, metrics);
+            }
+        } else {
+            try (ForkJoinPool pool = new ForkJoinPool(options.parallelism())) {
+                pool.submit(() -> IntStream.range(0, aligned.length)
+                                .parallel()
+                                .forEach(i -> aligned[i] = alignCached(snapshot, operations.get(i), options, cache, metrics)))
+                        .join();
             }
         }
+        List<OperationAlignment> results = Arrays.asList(aligned);
+        metrics.recordAlignments(results);
+        return results;
+    }
+
+    /**
+     * Aligns one operation per call against {@code snapshot} (see {@link #snapshotFor(AlignmentCache)}),
+     * for callers that stream operations rather than collect them. Calls may come from several threads.
+     */
+    public Function<ApiOperation, OperationAlignment> aligner(CatalogueSnapshot snapshot,
+                                                              AlignmentOptions options,
+                                                              AlignmentCache cache,
+                                                              RunMetrics metrics) {
+        return op -> {
+            OperationAlignment alignment = alignCached(snapshot, op, options, cache, metrics);
+            metrics.recordAlignment(alignment);
+            return alignment;
+        };
+    }
+
+    /**
+     * Opens the alignment cache stored in the given directory for the current catalogue and options.
+     */
+    public AlignmentCache openCache(Path directory, AlignmentOptions options) {
+        return AlignmentCache.open(directory.resolve(CACHE_FILE), catalogue.snapshot(),
+                Math.max(1, options.topK()), Math.max(0, options.topAreas()), cacheMapper);
+    }
+
+    public void saveCache(AlignmentCache cache) {
+        cache.save(cacheMapper);
+    }
 
-        if (bestScore < MIN_SCORE) {
-            return new OperationAlignment(op, catalogue.fallbackDomain(), 0, Collections.emptyList());
+    private OperationAlignment alignCached(CatalogueSnapshot snapshot,
+                                           ApiOperation op,
+                                           AlignmentOptions options,
+                                           AlignmentCache cache,
+                                           RunMetrics metrics) {
+        if (!cache.isEnabled()) {
+            return bestDomainsFor(snapshot, op, options, metrics);
         }
-        return new OperationAlignment(op, bestDomain, bestScore, matchedKeywords);
+        String fingerprint = op.fingerprint();
+        OperationAlignment cached = cache.lookup(fingerprint, op);
+        if (cached != null) {
+            return cached;
+        }
+        OperationAlignment alignment = bestDomainsFor(snapshot, op, options, metrics);
+        cache.store(fingerprint, alignment);
+        return alignment;
     }
 
-    private ScoredMatch score(BianServiceDomain domain, String searchableText, List<String> tags) {
-        List<String> matched = new ArrayList<>();
-        double score = 0.0;
+    /**
+     * Scores the candidate domains, keeping the best {@code topK} in a bounded min-heap. Ties rank the
+     * earlier catalogue domain higher, so the first entry is the same domain the single-best scan picks.
+     * <p>
+     * With {@code topAreas} set below the number of business areas, the candidates are first cut down to
+     * the domains of the best-matching areas (and those without an area). The bitset scorer then narrows
+     * them to the ones that can make the top {@code topK}.
+     */
+    private OperationAlignment bestDomainsFor(CatalogueSnapshot snapshot,
+                                              ApiOperation op,
+                                              AlignmentOptions options,
+                                              RunMetrics metrics) {
+        int topK = Math.max(1, options.topK());
+        boolean measureRecall = options.measureAreaRecall() && metrics.isEnabled();
+        CatalogueMatcher.Match match = snapshot.matcher().match(op.dictionary(), op.textTokens(), op.tagTokens());
+        BitSet candidates = match.candidates();
+        if (candidates.isEmpty()) {
+            metrics.recordMatch(0, match.fuzzyComparisons(), 0);
+            if (measureRecall) {
+                metrics.recordAreasRequired(0);
+            }
+            return new OperationAlignment(op, snapshot.fallbackDomain(), 0, Collections.emptyList());
+        }
 
-        for (String keyword : domain.getKeywords()) {
-            String normalized = keyword.toLowerCase();
-            if (searchableText.contains(normalized)) {
-                matched.add(keyword);
-                score += 1.2;
+        BusinessAreaIndex areas = snapshot.areas();
+        boolean coarse = options.topAreas() > 0 && options.topAreas() < areas.size();
+        CatalogueMatcher.KeywordBits bits = options.scorer() == ScorerMode.BITSET || coarse || measureRecall
+                ? snapshot.matcher().keywordBits(match)
+                : null;
+        int[] rankedAreas = coarse || measureRecall ? areas.rank(bits, candidates) : null;
+        if (coarse) {
+            candidates = areas.domainsIn(rankedAreas, options.topAreas(), candidates);
+        }
+        int scoredDomains = candidates.cardinality();
+
+        List<BianServiceDomain> domains = snapshot.domains();
+        int exactHits = 0;
+        Shortlist shortlist = null;
+        if (options.scorer() == ScorerMode.BITSET) {
+            shortlist = shortlist(snapshot, match, bits, candidates, topK);
+            candidates = shortlist.domains();
+            exactHits = shortlist.exactHits();
+        }
+
+        PriorityQueue<Ranked> heap = new PriorityQueue<>(topK + 1, WORST_FIRST);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            ScoredMatch scored;
+            if (shortlist == null) {
+                scored = score(i, domains.get(i), match);
+                exactHits += scored.exactHits();
+            } else if (shortlist.scored()[i] != null) {
+                scored = shortlist.scored()[i];
             } else {
-                Double jw = distance.apply(searchableText, normalized);
-                if (jw != null && jw > 0.9) {
-                    matched.add(keyword);
-                    score += 0.8;
-                }
+                // The shortlist already has the score; only the matched keywords are missing.
+                scored = new ScoredMatch(shortlist.scores()[i], keywordHits(i, domains.get(i), match).keywords(), 0);
+            }
+            if (heap.size() < topK) {
+                heap.add(new Ranked(i, scored));
+            } else if (scored.score() > heap.peek().match().score()) {
+                // Candidates arrive in catalogue order, so an equal score never displaces an earlier domain.
+                heap.poll();
+                heap.add(new Ranked(i, scored));
             }
         }
 
-        if (tags != null) {
-            for (String tag : tags) {
-                for (String keyword : domain.getKeywords()) {
-                    if (tag != null && tag.toLowerCase().contains(keyword.toLowerCase())) {
-                        matched.add(keyword);
-                        score += 0.8;
-                    }
-                }
-            }
+        metrics.recordMatch(exactHits, match.fuzzyComparisons(), scoredDomains);
+
+        Ranked[] ranked = new Ranked[heap.size()];
+        for (int r = ranked.length - 1; r >= 0; r--) {
+            ranked[r] = heap.poll();
+        }
+        Ranked best = ranked[0];
+        if (measureRecall) {
+            int exhaustiveBest = coarse
+                    ? exhaustiveBest(snapshot, match)
+                    : best.match().score() < MIN_SCORE ? -1 : best.domainIndex();
+            metrics.recordAreasRequired(areasRequired(areas, rankedAreas, exhaustiveBest));
         }
 
-        score += similarityToName(searchableText, domain);
+        List<DomainCandidate> runnersUp = List.of();
+        double margin = 0;
+        if (topK > 1) {
+            List<DomainCandidate> list = new ArrayList<>(ranked.length);
+            for (Ranked r : ranked) {
+                list.add(new DomainCandidate(domains.get(r.domainIndex()), r.match().score(), r.match().keywords()));
+            }
+            runnersUp = list;
+            margin = best.match().score() - (ranked.length > 1 ? ranked[1].match().score() : 0);
+        }
 
-        return new ScoredMatch(score, matched);
+        if (best.match().score() < MIN_SCORE) {
+            return new OperationAlignment(op, snapshot.fallbackDomain(), 0, Collections.emptyList(), runnersUp, margin);
+        }
+        return new OperationAlignment(op, domains.get(best.domainIndex()), best.match().score(), best.match().keywords(), runnersUp, margin);
     }
 
-    private double similarityToName(String searchableText, BianServiceDomain domain) {
-        double nameScore = 0.0;
-        if (domain.getName() != null && !domain.getName().isBlank()) {
-            String name = domain.getName().toLowerCase();
-            if (searchableText.contains(name)) {
-                nameScore += 1.0;
+    /**
+     * Scores every candidate from its popcounted keyword hits and keeps those scoring at least the
+     * {@code topK}-th best. The counts go through the same {@link #weightedScore} as {@link #score}, so
+     * the scores are identical and the shortlist holds every domain the keyword scorer would rank in the
+     * top {@code topK}. Domains whose counts are not exact are scored by {@link #score} here already.
+     */
+    private Shortlist shortlist(CatalogueSnapshot snapshot,
+                                CatalogueMatcher.Match match,
+                                CatalogueMatcher.KeywordBits bits,
+                                BitSet candidates,
+                                int topK) {
+        double[] scores = new double[candidates.length()];
+        ScoredMatch[] scored = new ScoredMatch[candidates.length()];
+        PriorityQueue<Double> best = new PriorityQueue<>(topK + 1);
+        int exactHits = 0;
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (bits.countsExact(i)) {
+                int inText = bits.inText(i);
+                int inTags = bits.inTags(i);
+                scores[i] = weightedScore(inText, bits.nearOnly(i), inTags, similarityToName(i, match));
+                exactHits += inText + inTags;
             } else {
-                Double jw = distance.apply(searchableText, name);
-                if (jw != null) {
-                    nameScore += jw / 2;
+                scored[i] = score(i, snapshot.domains().get(i), match);
+                scores[i] = scored[i].score();
+                exactHits += scored[i].exactHits();
+            }
+            best.add(scores[i]);
+            if (best.size() > topK) {
+                best.poll();
+            }
+        }
+        double threshold = best.peek();
+        BitSet shortlist = new BitSet(scores.length);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (scores[i] >= threshold) {
+                shortlist.set(i);
+            }
+        }
+        return new Shortlist(shortlist, scores, scored, exactHits);
+    }
+
+    /**
+     * The domain that scoring every candidate picks, or -1 for the fallback.
+     */
+    private int exhaustiveBest(CatalogueSnapshot snapshot, CatalogueMatcher.Match match) {
+        BitSet candidates = match.candidates();
+        int best = -1;
+        double bestScore = 0;
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            double score = score(i, snapshot.domains().get(i), match).score();
+            if (best < 0 || score > bestScore) {
+                best = i;
+                bestScore = score;
+            }
+        }
+        return bestScore < MIN_SCORE ? -1 : best;
+    }
+
+    /**
+     * How many of the ranked areas must be kept for the domain to be scored; 0 when it always is.
+     */
+    private static int areasRequired(BusinessAreaIndex areas, int[] rankedAreas, int domainIndex) {
+        int area = domainIndex < 0 ? BusinessAreaIndex.NONE : areas.areaOf(domainIndex);
+        if (area == BusinessAreaIndex.NONE) {
+            return 0;
+        }
+        for (int r = 0; r < rankedAreas.length; r++) {
+            if (rankedAreas[r] == area) {
+                return r + 1;
+            }
+        }
+        throw new IllegalStateException("Area " + area + " of a candidate domain was not ranked");
+    }
+
+    private ScoredMatch score(int domainIndex, BianServiceDomain domain, CatalogueMatcher.Match match) {
+        KeywordHits hits = keywordHits(domainIndex, domain, match);
+        double score = weightedScore(hits.inText(), hits.nearOnly(), hits.inTags(), similarityToName(domainIndex, match));
+        return new ScoredMatch(score, hits.keywords(), hits.inText() + hits.inTags());
+    }
+
+    /**
+     * 1.2 per keyword in the text, 0.8 per keyword only near the text and 0.8 per keyword occurrence in a
+     * tag, plus the name score. Both scorers sum through here so their scores are equal to the last bit.
+     */
+    private static double weightedScore(int inText, int nearOnly, int inTags, double nameScore) {
+        return 1.2 * inText + 0.8 * (nearOnly + inTags) + nameScore;
+    }
+
+    /**
+     * The domain's keywords found in the text, near it or in a tag, in that order, with their counts.
+     */
+    private static KeywordHits keywordHits(int domainIndex, BianServiceDomain domain, CatalogueMatcher.Match match) {
+        List<String> keywords = domain.getKeywords();
+        List<String> matched = new ArrayList<>();
+        int inText = 0;
+        int nearOnly = 0;
+        int inTags = 0;
+
+        for (int k = 0; k < keywords.size(); k++) {
+            if (match.keywordInText(domainIndex, k)) {
+                matched.add(keywords.get(k));
+                inText++;
+            } else if (match.keywordNearText(domainIndex, k)) {
+                matched.add(keywords.get(k));
+                nearOnly++;
+            }
+        }
+
+        for (int t = 0; t < match.tagHits().size(); t++) {
+            for (int k = 0; k < keywords.size(); k++) {
+                if (match.keywordInTag(t, domainIndex, k)) {
+                    matched.add(keywords.get(k));
+                    inTags++;
                 }
             }
         }
-        if (domain.getCode() != null && !domain.getCode().isBlank() && searchableText.contains(domain.getCode().toLowerCase())) {
+        return new KeywordHits(matched, inText, nearOnly, inTags);
+    }
+
+    private double similarityToName(int domainIndex, CatalogueMatcher.Match match) {
+        double nameScore = 0.0;
+        if (match.nameInText(domainIndex)) {
+            nameScore += 1.0;
+        } else {
+            nameScore += match.nameCoverage(domainIndex) / 2;
+        }
+        if (match.codeInText(domainIndex)) {
             nameScore += 0.5;
         }
         return nameScore;
     }
 
-    private record ScoredMatch(double score, List<String> keywords) {
+    /**
+     * @param exactHits keywords found verbatim in the text or a tag, counting each tag separately
+     */
+    private record ScoredMatch(double score, List<String> keywords, int exactHits) {
+    }
+
+    private record KeywordHits(List<String> keywords, int inText, int nearOnly, int inTags) {
+    }
+
+    private record Ranked(int domainIndex, ScoredMatch match) {
+    }
+
+    /**
+     * @param scores    the score of every candidate, by domain index
+     * @param scored    the full match of the candidates whose counts were not exact, by domain index
+     * @param exactHits keyword hits of every candidate, counted as {@link ScoredMatch#exactHits()}
+     */
+    private record Shortlist(BitSet domains, double[] scores, ScoredMatch[] scored, int exactHits) {
     }
 }
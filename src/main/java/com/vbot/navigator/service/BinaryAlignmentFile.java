@@ -0,0 +1,315 @@
+package com.vbot.navigator.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-only view of an {@code alignment.bin} file written with {@code --binary}. The file is memory
+ * mapped and nothing is decoded up front: domains, operations and candidates are flyweight views over
+ * the mapped columns, and strings are decoded from the dictionary the first time they are asked for.
+ * <p>
+ * Layout (big-endian): a header of nine ints (magic, version, string count, domain count, operation
+ * count, candidate count, list pool size, spec path id, generated-at id); the string offsets and the
+ * UTF-8 string bytes; the list pool, where each list is its length followed by string ids; one row of
+ * {@value #DOMAIN_INTS} ints per domain (code, name, capabilities list, first operation, operation
+ * count); the operation columns (path, method, operation id, summary, keywords list, first candidate,
+ * candidate count, then score and margin as doubles); and the candidate columns (code, name, keywords
+ * list, then score). A string or list id of {@value #NULL} stands for {@code null}.
+ * <p>
+ * Instances are safe to share between threads.
+ */
+public final class BinaryAlignmentFile {
+
+    static final int MAGIC = 0x4249414E; // "BIAN"
+    static final int VERSION = 1;
+    static final int NULL = -1;
+    static final int DOMAIN_INTS = 5;
+    static final int OPERATION_INTS = 7;
+    static final int CANDIDATE_INTS = 3;
+    private static final int HEADER_INTS = 9;
+
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int domainCount;
+    private final int operationCount;
+    private final int candidateCount;
+    private final int specPathId;
+    private final int generatedAtId;
+    private final int stringOffsets;
+    private final int stringBytes;
+    private final int listPool;
+    private final int domainRows;
+    private final int operationInts;
+    private final int operationScores;
+    private final int operationMargins;
+    private final int candidateInts;
+    private final int candidateScores;
+    private final String[] decoded;
+    private final Map<String, Integer> domainIndexes = new HashMap<>();
+
+    private BinaryAlignmentFile(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_INTS * Integer.BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a binary alignment file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary alignment version " + buffer.getInt(4));
+        }
+        this.stringCount = buffer.getInt(8);
+        this.domainCount = buffer.getInt(12);
+        this.operationCount = buffer.getInt(16);
+        this.candidateCount = buffer.getInt(20);
+        int listPoolSize = buffer.getInt(24);
+        this.specPathId = buffer.getInt(28);
+        this.generatedAtId = buffer.getInt(32);
+
+        this.stringOffsets = HEADER_INTS * Integer.BYTES;
+        this.stringBytes = stringOffsets + (stringCount + 1) * Integer.BYTES;
+        this.listPool = stringBytes + buffer.getInt(stringOffsets + stringCount * Integer.BYTES);
+        this.domainRows = listPool + listPoolSize * Integer.BYTES;
+        this.operationInts = domainRows + domainCount * DOMAIN_INTS * Integer.BYTES;
+        this.operationScores = operationInts + operationCount * OPERATION_INTS * Integer.BYTES;
+        this.operationMargins = operationScores + operationCount * Double.BYTES;
+        this.candidateInts = operationMargins + operationCount * Double.BYTES;
+        this.candidateScores = candidateInts + candidateCount * CANDIDATE_INTS * Integer.BYTES;
+        if (candidateScores + (long) candidateCount * Double.BYTES != buffer.limit()) {
+            throw new IllegalArgumentException("Truncated or corrupt binary alignment file");
+        }
+        this.decoded = new String[stringCount];
+        for (int d = 0; d < domainCount; d++) {
+            domainIndexes.putIfAbsent(string(domainInt(d, 0)), d);
+        }
+    }
+
+    /**
+     * Maps the file into memory. Files larger than 2 GB are not supported.
+     */
+    public static BinaryAlignmentFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Binary alignment file too large to map: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BinaryAlignmentFile(mapped);
+        }
+    }
+
+    public String specPath() {
+        return string(specPathId);
+    }
+
+    public String generatedAt() {
+        return string(generatedAtId);
+    }
+
+    public int operationCount() {
+        return operationCount;
+    }
+
+    public List<Domain> domains() {
+        return new AbstractList<>() {
+            @Override
+            public Domain get(int index) {
+                return domain(index);
+            }
+
+            @Override
+            public int size() {
+                return domainCount;
+            }
+        };
+    }
+
+    public Domain domain(int index) {
+        if (index < 0 || index >= domainCount) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return new Domain(index);
+    }
+
+    /**
+     * Looks up a domain by code without touching any operation data.
+     */
+    public Optional<Domain> domain(String code) {
+        Integer index = domainIndexes.get(code);
+        return index == null ? Optional.empty() : Optional.of(new Domain(index));
+    }
+
+    /**
+     * Every operation in the file, grouped by domain in file order.
+     */
+    public List<Operation> operations() {
+        return operations(0, operationCount);
+    }
+
+    private List<Operation> operations(int first, int count) {
+        return new AbstractList<>() {
+            @Override
+            public Operation get(int index) {
+                if (index < 0 || index >= count) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return new Operation(first + index);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    private int domainInt(int domain, int field) {
+        return buffer.getInt(domainRows + (domain * DOMAIN_INTS + field) * Integer.BYTES);
+    }
+
+    private int operationInt(int operation, int column) {
+        return buffer.getInt(operationInts + (column * operationCount + operation) * Integer.BYTES);
+    }
+
+    private int candidateInt(int candidate, int column) {
+        return buffer.getInt(candidateInts + (column * candidateCount + candidate) * Integer.BYTES);
+    }
+
+    private String string(int id) {
+        if (id == NULL) {
+            return null;
+        }
+        String value = decoded[id];
+        if (value == null) {
+            int start = buffer.getInt(stringOffsets + id * Integer.BYTES);
+            int end = buffer.getInt(stringOffsets + (id + 1) * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            buffer.get(stringBytes + start, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            // Benign race: every thread decodes the same immutable value.
+            decoded[id] = value;
+        }
+        return value;
+    }
+
+    private List<String> stringList(int position) {
+        if (position == NULL) {
+            return null;
+        }
+        int size = buffer.getInt(listPool + position * Integer.BYTES);
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return string(buffer.getInt(listPool + (position + 1 + index) * Integer.BYTES));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public final class Domain {
+        private final int index;
+
+        private Domain(int index) {
+            this.index = index;
+        }
+
+        public String code() {
+            return string(domainInt(index, 0));
+        }
+
+        public String name() {
+            return string(domainInt(index, 1));
+        }
+
+        public List<String> capabilities() {
+            return stringList(domainInt(index, 2));
+        }
+
+        public int operationCount() {
+            return domainInt(index, 4);
+        }
+
+        public List<Operation> operations() {
+            return BinaryAlignmentFile.this.operations(domainInt(index, 3), domainInt(index, 4));
+        }
+    }
+
+    public final class Operation {
+        private final int index;
+
+        private Operation(int index) {
+            this.index = index;
+        }
+
+        public String path() {
+            return string(operationInt(index, 0));
+        }
+
+        public String httpMethod() {
+            return string(operationInt(index, 1));
+        }
+
+        public String operationId() {
+            return string(operationInt(index, 2));
+        }
+
+        public String summary() {
+            return string(operationInt(index, 3));
+        }
+
+        public List<String> matchedKeywords() {
+            return stringList(operationInt(index, 4));
+        }
+
+        public double score() {
+            return buffer.getDouble(operationScores + index * Double.BYTES);
+        }
+
+        /**
+         * Margin over the runner-up; only meaningful when {@link #candidates()} is not empty.
+         */
+        public double margin() {
+            return buffer.getDouble(operationMargins + index * Double.BYTES);
+        }
+
+        public List<Candidate> candidates() {
+            int first = operationInt(index, 5);
+            int count = operationInt(index, 6);
+            return new AbstractList<>() {
+                @Override
+                public Candidate get(int i) {
+                    if (i < 0 || i >= count) {
+                        throw new IndexOutOfBoundsException(i);
+                    }
+                    int c = first + i;
+                    return new Candidate(
+                            string(candidateInt(c, 0)),
+                            string(candidateInt(c, 1)),
+                            buffer.getDouble(candidateScores + c * Double.BYTES),
+                            stringList(candidateInt(c, 2)));
+                }
+
+                @Override
+                public int size() {
+                    return count;
+                }
+            };
+        }
+    }
+
+    public record Candidate(String code, String name, double score, List<String> matchedKeywords) {
+    }
+}
@@ -0,0 +1,165 @@
+package com.vbot.navigator.service;
+
+import com.vbot.navigator.model.DomainAlignment;
+import com.vbot.navigator.model.DomainCandidate;
+import com.vbot.navigator.model.OperationAlignment;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@code alignment.bin} in the layout read by {@link BinaryAlignmentFile}. Every string is
+ * stored once in a dictionary and referenced by id; string lists (keywords, capabilities) live in a
+ * shared int pool; operations and candidates are stored column by column, grouped by domain.
+ */
+final class BinaryAlignmentWriter {
+
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<byte[]> strings = new ArrayList<>();
+    private int[] listPool = new int[256];
+    private int listPoolSize;
+
+    private BinaryAlignmentWriter() {
+    }
+
+    static void write(OutputStream target, Path specPath, String generatedAt, List<DomainAlignment> alignments) throws IOException {
+        new BinaryAlignmentWriter().writeFile(target, specPath, generatedAt, alignments);
+    }
+
+    private void writeFile(OutputStream target, Path specPath, String generatedAt, List<DomainAlignment> alignments) throws IOException {
+        int operationCount = 0;
+        int candidateCount = 0;
+        for (DomainAlignment alignment : alignments) {
+            operationCount += alignment.operations().size();
+            for (OperationAlignment op : alignment.operations()) {
+                candidateCount += op.candidates().size();
+            }
+        }
+
+        // First pass: intern every string and list so the dictionary can be written up front.
+        int specPathId = intern(specPath.toAbsolutePath().toString());
+        int generatedAtId = intern(generatedAt);
+        int[] domainColumns = new int[alignments.size() * BinaryAlignmentFile.DOMAIN_INTS];
+        int[] operationColumns = new int[operationCount * BinaryAlignmentFile.OPERATION_INTS];
+        double[] operationScores = new double[operationCount];
+        double[] operationMargins = new double[operationCount];
+        int[] candidateColumns = new int[candidateCount * BinaryAlignmentFile.CANDIDATE_INTS];
+        double[] candidateScores = new double[candidateCount];
+
+        int o = 0;
+        int c = 0;
+        for (int d = 0; d < alignments.size(); d++) {
+            DomainAlignment alignment = alignments.get(d);
+            int base = d * BinaryAlignmentFile.DOMAIN_INTS;
+            domainColumns[base] = intern(alignment.domain().getCode());
+            domainColumns[base + 1] = intern(alignment.domain().getName());
+            domainColumns[base + 2] = internList(alignment.domain().getCapabilities());
+            domainColumns[base + 3] = o;
+            domainColumns[base + 4] = alignment.operations().size();
+            for (OperationAlignment op : alignment.operations()) {
+                operationColumns[o] = intern(op.operation().path());
+                operationColumns[operationCount + o] = intern(op.operation().httpMethod());
+                operationColumns[2 * operationCount + o] = intern(op.operation().operationId());
+                operationColumns[3 * operationCount + o] = intern(op.operation().summary());
+                operationColumns[4 * operationCount + o] = internList(op.matchedKeywords());
+                operationColumns[5 * operationCount + o] = c;
+                operationColumns[6 * operationCount + o] = op.candidates().size();
+                operationScores[o] = op.score();
+                operationMargins[o] = op.margin();
+                for (DomainCandidate candidate : op.candidates()) {
+                    candidateColumns[c] = intern(candidate.domain().getCode());
+                    candidateColumns[candidateCount + c] = intern(candidate.domain().getName());
+                    candidateColumns[2 * candidateCount + c] = internList(candidate.matchedKeywords());
+                    candidateScores[c] = candidate.score();
+                    c++;
+                }
+                o++;
+            }
+        }
+
+        // The caller owns the target stream, so it is flushed but not closed.
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(target, 1 << 16));
+        out.writeInt(BinaryAlignmentFile.MAGIC);
+        out.writeInt(BinaryAlignmentFile.VERSION);
+        out.writeInt(strings.size());
+        out.writeInt(alignments.size());
+        out.writeInt(operationCount);
+        out.writeInt(candidateCount);
+        out.writeInt(listPoolSize);
+        out.writeInt(specPathId);
+        out.writeInt(generatedAtId);
+
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] bytes : strings) {
+            offset += bytes.length;
+            out.writeInt(offset);
+        }
+        for (byte[] bytes : strings) {
+            out.write(bytes);
+        }
+        writeInts(out, listPool, listPoolSize);
+        writeInts(out, domainColumns, domainColumns.length);
+        writeInts(out, operationColumns, operationColumns.length);
+        writeDoubles(out, operationScores);
+        writeDoubles(out, operationMargins);
+        writeInts(out, candidateColumns, candidateColumns.length);
+        writeDoubles(out, candidateScores);
+        out.flush();
+    }
+
+    private int intern(String value) {
+        if (value == null) {
+            return BinaryAlignmentFile.NULL;
+        }
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(value, id);
+            strings.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return id;
+    }
+
+    /**
+     * Appends the list to the pool as its length followed by its string ids and returns its position.
+     */
+    private int internList(List<String> values) {
+        if (values == null) {
+            return BinaryAlignmentFile.NULL;
+        }
+        int[] ids = new int[values.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = intern(values.get(i));
+        }
+        if (listPoolSize + ids.length + 1 > listPool.length) {
+            listPool = Arrays.copyOf(listPool, Math.max(listPool.length * 2, listPoolSize + ids.length + 1));
+        }
+        int position = listPoolSize;
+        listPool[listPoolSize++] = ids.length;
+        System.arraycopy(ids, 0, listPool, listPoolSize, ids.length);
+        listPoolSize += ids.length;
+        return position;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            out.writeInt(values[i]);
+        }
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+}
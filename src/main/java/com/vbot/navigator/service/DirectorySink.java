@@ -0,0 +1,63 @@
+package com.vbot.navigator.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * {@link OutputSink} over a directory tree.
+ */
+final class DirectorySink implements OutputSink {
+
+    private final Path root;
+
+    DirectorySink(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public OutputStream open(String path) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        return Files.newOutputStream(file);
+    }
+
+    /**
+     * Compares the content with the file on disk, once their sizes match, and leaves an identical
+     * file untouched, so its timestamp does not change.
+     */
+    @Override
+    public boolean write(String path, byte[] content) throws IOException {
+        Path file = root.resolve(path);
+        if (Files.isRegularFile(file)
+                && Files.size(file) == content.length
+                && Arrays.equals(Files.readAllBytes(file), content)) {
+            return false;
+        }
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        return true;
+    }
+
+    @Override
+    public void createDirectory(String path) throws IOException {
+        Files.createDirectories(root.resolve(path));
+    }
+
+    @Override
+    public Optional<Path> directory() {
+        return Optional.of(root);
+    }
+
+    @Override
+    public String describe(String path) {
+        return root.resolve(path).toAbsolutePath().toString();
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,94 @@
+package com.vbot.navigator.service;
+
+import com.vbot.navigator.config.CatalogueSnapshot;
+import com.vbot.navigator.model.DomainAlignment;
+import com.vbot.navigator.model.OperationAlignment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Groups aligned operations by domain while they are being scored. There is one slot per catalogue
+ * domain, addressed by its index in the snapshot, plus a last slot for the fallback domain; each slot
+ * has its own lock, so scorers appending to different domains never wait for each other. Every
+ * operation carries its sequence number in the spec, and {@link #domains()} restores that order within
+ * each domain and lists the domains in catalogue order, fallback last.
+ */
+final class DomainAccumulator {
+
+    private final CatalogueSnapshot snapshot;
+    private final Slot[] slots;
+    private final AtomicInteger operations = new AtomicInteger();
+
+    DomainAccumulator(CatalogueSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.slots = new Slot[snapshot.domains().size() + 1];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    /**
+     * Adds an operation aligned against this accumulator's snapshot. Safe to call from several threads.
+     */
+    void add(long sequence, OperationAlignment alignment) {
+        int index = snapshot.indexOf(alignment.domain());
+        slots[index < 0 ? slots.length - 1 : index].add(sequence, alignment);
+        operations.incrementAndGet();
+    }
+
+    int operations() {
+        return operations.get();
+    }
+
+    /**
+     * The domains with at least one operation. Call once every {@link #add} has returned.
+     */
+    List<DomainAlignment> domains() {
+        List<DomainAlignment> grouped = new ArrayList<>();
+        for (int i = 0; i < slots.length; i++) {
+            List<OperationAlignment> aligned = slots[i].inSequence();
+            if (!aligned.isEmpty()) {
+                grouped.add(new DomainAlignment(i < slots.length - 1 ? snapshot.domains().get(i) : aligned.get(0).domain(), aligned));
+            }
+        }
+        return grouped;
+    }
+
+    private static final class Slot {
+        private long[] sequences = new long[0];
+        private OperationAlignment[] alignments = new OperationAlignment[0];
+        private int size;
+        private boolean ordered = true;
+
+        private synchronized void add(long sequence, OperationAlignment alignment) {
+            if (size == sequences.length) {
+                int capacity = Math.max(8, size * 2);
+                sequences = Arrays.copyOf(sequences, capacity);
+                alignments = Arrays.copyOf(alignments, capacity);
+            }
+            ordered &= size == 0 || sequences[size - 1] < sequence;
+            sequences[size] = sequence;
+            alignments[size] = alignment;
+            size++;
+        }
+
+        private synchronized List<OperationAlignment> inSequence() {
+            if (ordered) {
+                return Arrays.asList(Arrays.copyOf(alignments, size));
+            }
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(sequences[a], sequences[b]));
+            List<OperationAlignment> sorted = new ArrayList<>(size);
+            for (int i : order) {
+                sorted.add(alignments[i]);
+            }
+            return sorted;
+        }
+    }
+}
@@ -1,21 +1,34 @@
 package com.vbot.navigator.service;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.vbot.navigator.model.AlignmentDelta;
 import com.vbot.navigator.model.DomainAlignment;
+import com.vbot.navigator.model.DomainCandidate;
+import com.vbot.navigator.model.NavigatorResult;
 import com.vbot.navigator.model.OperationAlignment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 @Component
 public class GenerationPlanWriter {
@@ -25,78 +38,536 @@ public class GenerationPlanWriter {
     private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
 
     public void write(Path outputDir, Path specPath, List<DomainAlignment> alignments) {
+        write(outputDir, specPath, alignments, false);
+    }
+
+    /**
+     * Writes the Markdown report and {@code alignment.json}, plus {@code alignment.bin} (see
+     * {@link BinaryAlignmentFile}) when {@code binary} is set.
+     */
+    public void write(Path outputDir, Path specPath, List<DomainAlignment> alignments, boolean binary) {
+        write(OutputSink.directory(outputDir), specPath, alignments, binary);
+    }
+
+    /**
+     * Writes the reports into the sink, which may be a directory or an archive.
+     */
+    public void write(OutputSink sink, Path specPath, List<DomainAlignment> alignments, boolean binary) {
         try {
-            Files.createDirectories(outputDir);
-            writeMarkdown(outputDir.resolve("alignment-report.md"), specPath, alignments);
-            writeJson(outputDir.resolve("alignment.json"), specPath, alignments);
+            writeMarkdown(sink, "alignment-report.md", specPath, alignments);
+            writeJson(sink, "alignment.json", specPath, alignments);
+            if (binary) {
+                try (OutputStream out = sink.open("alignment.bin")) {
+                    BinaryAlignmentWriter.write(out, specPath, LocalDateTime.now().toString(), alignments);
+                }
+                log.info("Wrote {}", sink.describe("alignment.bin"));
+            }
         } catch (IOException e) {
-            throw new IllegalStateException("Failed to write plan to " + outputDir, e);
-        }
-    }
-
-    private void writeMarkdown(Path file, Path specPath, List<DomainAlignment> alignments) throws IOException {
-        StringBuilder builder = new StringBuilder();
-        builder.append("# Modernisation alignment report\n\n");
-        builder.append("- Source spec: ").append(specPath.toAbsolutePath()).append("\n");
-        builder.append("- Generated at: ").append(LocalDateTime.now()).append("\n");
-        builder.append("- Domains discovered: ").append(alignments.size()).append("\n\n");
-
-        for (DomainAlignment domain : alignments) {
-            builder.append("## ").append(domain.domain().getName())
-                    .append(" (").append(domain.domain().getCode()).append(")").append("\n");
-            if (!domain.domain().getCapabilities().isEmpty()) {
-                builder.append("- Capabilities: ").append(String.join(", ", domain.domain().getCapabilities())).append("\n");
-            }
-            builder.append("- Operations: ").append(domain.operations().size()).append("\n\n");
-            for (OperationAlignment op : domain.operations()) {
-                builder.append("  - ").append(op.operation().httpMethod())
-                        .append(" ").append(op.operation().path())
-                        .append(" | id: ").append(op.operation().operationId())
-                        .append(" | score: ").append(String.format("%.2f", op.score()));
-                if (!op.matchedKeywords().isEmpty()) {
-                    builder.append(" | keywords: ").append(String.join(", ", op.matchedKeywords()));
+            throw new IllegalStateException("Failed to write plan to " + sink.describe(""), e);
+        }
+    }
+
+    private void writeMarkdown(OutputSink sink, String name, Path specPath, List<DomainAlignment> alignments) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(sink.open(name), StandardCharsets.UTF_8))) {
+            out.write("# Modernisation alignment report\n\n");
+            out.write("- Source spec: " + specPath.toAbsolutePath() + "\n");
+            out.write("- Generated at: " + LocalDateTime.now() + "\n");
+            out.write("- Domains discovered: " + alignments.size() + "\n\n");
+
+            for (DomainAlignment domain : alignments) {
+                out.write("## ");
+                out.write(String.valueOf(domain.domain().getName()));
+                out.write(" (");
+                out.write(String.valueOf(domain.domain().getCode()));
+                out.write(")\n");
+                if (!domain.domain().getCapabilities().isEmpty()) {
+                    out.write("- Capabilities: ");
+                    out.write(String.join(", ", domain.domain().getCapabilities()));
+                    out.write("\n");
                 }
-                if (op.operation().summary() != null && !op.operation().summary().isBlank()) {
-                    builder.append("\n    summary: ").append(op.operation().summary());
+                out.write("- Operations: " + domain.operations().size() + "\n\n");
+                for (OperationAlignment op : domain.operations()) {
+                    writeOperationLine(out, op);
                 }
-                builder.append("\n");
+                out.write("\n");
             }
-            builder.append("\n");
         }
+        log.info("Wrote {}", sink.describe(name));
+    }
 
-        Files.writeString(file, builder.toString());
-        log.info("Wrote {}", file.toAbsolutePath());
+    private void writeOperationLine(Writer out, OperationAlignment op) throws IOException {
+        out.write("  - ");
+        out.write(String.valueOf(op.operation().httpMethod()));
+        out.write(" ");
+        out.write(String.valueOf(op.operation().path()));
+        out.write(" | id: ");
+        out.write(String.valueOf(op.operation().operationId()));
+        out.write(" | score: ");
+        writeTwoDecimals(out, op.score());
+        if (!op.matchedKeywords().isEmpty()) {
+            out.write(" | keywords: ");
+            writeJoined(out, op.matchedKeywords());
+        }
+        if (op.operation().summary() != null && !op.operation().summary().isBlank()) {
+            out.write("\n    summary: ");
+            out.write(op.operation().summary());
+        }
+        if (!op.candidates().isEmpty()) {
+            out.write("\n    candidates: ");
+            for (int i = 0; i < op.candidates().size(); i++) {
+                DomainCandidate candidate = op.candidates().get(i);
+                if (i > 0) {
+                    out.write(", ");
+                }
+                out.write(String.valueOf(candidate.domain().getCode()));
+                out.write(" ");
+                writeTwoDecimals(out, candidate.score());
+            }
+            out.write(" | margin: ");
+            writeTwoDecimals(out, op.margin());
+        }
+        out.write("\n");
     }
 
-    private void writeJson(Path file, Path specPath, List<DomainAlignment> alignments) throws IOException {
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("specPath", specPath.toAbsolutePath().toString());
-        payload.put("generatedAt", LocalDateTime.now().toString());
+    private static void writeJoined(Writer out, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out.write(", ");
+            }
+            out.write(String.valueOf(values.get(i)));
+        }
+    }
 
-        List<Map<String, Object>> domains = new ArrayList<>();
-        for (DomainAlignment alignment : alignments) {
-            Map<String, Object> domain = new HashMap<>();
-            domain.put("code", alignment.domain().getCode());
-            domain.put("name", alignment.domain().getName());
-            domain.put("capabilities", alignment.domain().getCapabilities());
+    /**
+     * Writes the value rounded half-up to two decimals, as {@code String.format("%.2f")} does in an
+     * English locale, without going through {@link java.util.Formatter}. Values that sit on a rounding
+     * boundary, negative values and non-finite values are handed to {@code String.format} itself, which
+     * rounds the shortest decimal form of the double rather than its exact binary value.
+     */
+    static void writeTwoDecimals(Writer out, double value) throws IOException {
+        double scaled = value * 100;
+        long floor = (long) Math.floor(scaled);
+        double fraction = scaled - floor;
+        // The sign bit also catches -0.0, which String.format writes as -0.00.
+        if (Double.doubleToRawLongBits(value) < 0 || scaled >= Long.MAX_VALUE
+                || Math.abs(fraction - 0.5) < 1e-6 || Double.isNaN(value)) {
+            out.write(String.format(Locale.ROOT, "%.2f", value));
+            return;
+        }
+        long cents = fraction > 0.5 ? floor + 1 : floor;
+        out.write(Long.toString(cents / 100));
+        out.write('.');
+        long remainder = cents % 100;
+        if (remainder < 10) {
+            out.write('0');
+        }
+        out.write(Long.toString(remainder));
+    }
+
+    private void writeJson(OutputSink sink, String name, Path specPath, List<DomainAlignment> alignments) throws IOException {
+        try (OutputStream stream = new BufferedOutputStream(sink.open(name));
+             JsonGenerator json = mapper.writer().createGenerator(stream, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("specPath", specPath.toAbsolutePath().toString());
+            json.writeStringField("generatedAt", LocalDateTime.now().toString());
+            writeDomains(json, alignments);
+            json.writeEndObject();
+        }
+        log.info("Wrote {}", sink.describe(name));
+    }
+
+    /**
+     * Writes {@code alignment-delta.md} and {@code alignment-delta.json}: the operations added, removed,
+     * re-mapped to another domain, modified within their domain and unchanged since the baseline. The
+     * Markdown report lists every change and only counts the unchanged operations per domain.
+     */
+    public void writeDelta(OutputSink sink, AlignmentDelta delta) {
+        try {
+            writeDeltaMarkdown(sink, "alignment-delta.md", delta);
+            writeDeltaJson(sink, "alignment-delta.json", delta);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write alignment delta to " + sink.describe(""), e);
+        }
+    }
+
+    private void writeDeltaMarkdown(OutputSink sink, String name, AlignmentDelta delta) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(sink.open(name), StandardCharsets.UTF_8))) {
+            out.write("# Modernisation alignment delta\n\n");
+            out.write("- Source spec: " + delta.specPath().toAbsolutePath() + "\n");
+            out.write("- Baseline spec: " + delta.baselinePath().toAbsolutePath() + "\n");
+            out.write("- Generated at: " + LocalDateTime.now() + "\n");
+            out.write("- Added: " + delta.added().size() + "\n");
+            out.write("- Removed: " + delta.removed().size() + "\n");
+            out.write("- Re-mapped: " + delta.remapped().size() + "\n");
+            out.write("- Modified (same domain): " + delta.modified().size() + "\n");
+            out.write("- Unchanged: " + delta.unchanged().size() + "\n\n");
+
+            writeChangeSection(out, "Re-mapped operations", delta.remapped());
+            writeDeltaSection(out, "Added operations", delta.added());
+            writeDeltaSection(out, "Removed operations", delta.removed());
+            writeChangeSection(out, "Modified operations (same domain)", delta.modified());
+
+            if (!delta.unchanged().isEmpty()) {
+                Map<String, Integer> byCode = new TreeMap<>();
+                Map<String, String> names = new HashMap<>();
+                for (OperationAlignment op : delta.unchanged()) {
+                    byCode.merge(op.domain().getCode(), 1, Integer::sum);
+                    names.putIfAbsent(op.domain().getCode(), op.domain().getName());
+                }
+                out.write("## Unchanged operations\n");
+                for (Map.Entry<String, Integer> domain : byCode.entrySet()) {
+                    out.write("  - " + names.get(domain.getKey()) + " (" + domain.getKey() + "): " + domain.getValue() + "\n");
+                }
+                out.write("\n");
+            }
+        }
+        log.info("Wrote {}", sink.describe(name));
+    }
+
+    private void writeDeltaSection(Writer out, String title, List<OperationAlignment> operations) throws IOException {
+        if (operations.isEmpty()) {
+            return;
+        }
+        out.write("## " + title + "\n");
+        for (OperationAlignment op : operations) {
+            out.write("  - ");
+            out.write(String.valueOf(op.operation().httpMethod()));
+            out.write(" ");
+            out.write(String.valueOf(op.operation().path()));
+            out.write(" | id: ");
+            out.write(String.valueOf(op.operation().operationId()));
+            out.write(" | domain: ");
+            out.write(String.valueOf(op.domain().getCode()));
+            out.write(" | score: ");
+            writeTwoDecimals(out, op.score());
+            out.write("\n");
+        }
+        out.write("\n");
+    }
+
+    private void writeChangeSection(Writer out, String title, List<AlignmentDelta.Change> changes) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        out.write("## " + title + "\n");
+        for (AlignmentDelta.Change change : changes) {
+            OperationAlignment current = change.current();
+            out.write("  - ");
+            out.write(String.valueOf(current.operation().httpMethod()));
+            out.write(" ");
+            out.write(String.valueOf(current.operation().path()));
+            out.write(" | id: ");
+            out.write(String.valueOf(current.operation().operationId()));
+            out.write(" | domain: ");
+            out.write(String.valueOf(change.baseline().domain().getCode()));
+            out.write(" -> ");
+            out.write(String.valueOf(current.domain().getCode()));
+            out.write(" | score: ");
+            writeTwoDecimals(out, change.baseline().score());
+            out.write(" -> ");
+            writeTwoDecimals(out, current.score());
+            out.write("\n");
+        }
+        out.write("\n");
+    }
+
+    private void writeDeltaJson(OutputSink sink, String name, AlignmentDelta delta) throws IOException {
+        try (OutputStream stream = new BufferedOutputStream(sink.open(name));
+             JsonGenerator json = mapper.writer().createGenerator(stream, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("specPath", delta.specPath().toAbsolutePath().toString());
+            json.writeStringField("baselinePath", delta.baselinePath().toAbsolutePath().toString());
+            json.writeStringField("generatedAt", LocalDateTime.now().toString());
+            json.writeObjectFieldStart("summary");
+            json.writeNumberField("added", delta.added().size());
+            json.writeNumberField("removed", delta.removed().size());
+            json.writeNumberField("remapped", delta.remapped().size());
+            json.writeNumberField("modified", delta.modified().size());
+            json.writeNumberField("unchanged", delta.unchanged().size());
+            json.writeEndObject();
+            writeDeltaOperations(json, "added", delta.added());
+            writeDeltaOperations(json, "removed", delta.removed());
+            writeChanges(json, "remapped", delta.remapped());
+            writeChanges(json, "modified", delta.modified());
+            writeDeltaOperations(json, "unchanged", delta.unchanged());
+            json.writeEndObject();
+        }
+        log.info("Wrote {}", sink.describe(name));
+    }
+
+    private static void writeDeltaOperations(JsonGenerator json, String field, List<OperationAlignment> operations) throws IOException {
+        json.writeArrayFieldStart(field);
+        for (OperationAlignment op : operations) {
+            json.writeStartObject();
+            writeOperationKey(json, op);
+            writeDomainScore(json, op);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private static void writeChanges(JsonGenerator json, String field, List<AlignmentDelta.Change> changes) throws IOException {
+        json.writeArrayFieldStart(field);
+        for (AlignmentDelta.Change change : changes) {
+            json.writeStartObject();
+            writeOperationKey(json, change.current());
+            json.writeObjectFieldStart("baseline");
+            writeDomainScore(json, change.baseline());
+            json.writeEndObject();
+            json.writeObjectFieldStart("current");
+            writeDomainScore(json, change.current());
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private static void writeOperationKey(JsonGenerator json, OperationAlignment op) throws IOException {
+        json.writeStringField("path", op.operation().path());
+        json.writeStringField("httpMethod", op.operation().httpMethod());
+        json.writeStringField("operationId", op.operation().operationId());
+    }
+
+    private static void writeDomainScore(JsonGenerator json, OperationAlignment op) throws IOException {
+        json.writeStringField("code", op.domain().getCode());
+        json.writeStringField("name", op.domain().getName());
+        json.writeNumberField("score", op.score());
+        writeStrings(json, "matchedKeywords", op.matchedKeywords());
+    }
 
-            List<Map<String, Object>> ops = new ArrayList<>();
+    /**
+     * Writes {@code run-metrics.json}: the duration of each stage, throughput and the matching counters
+     * of one run. Stages still running when this is called are not included.
+     */
+    public void writeRunMetrics(OutputSink sink, Path specPath, RunMetrics metrics, AlignmentCache cache) {
+        String name = "run-metrics.json";
+        double totalMillis = metrics.elapsedMillis();
+        try (OutputStream stream = new BufferedOutputStream(sink.open(name));
+             JsonGenerator json = mapper.writer().createGenerator(stream, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("specPath", specPath.toAbsolutePath().toString());
+            json.writeStringField("generatedAt", LocalDateTime.now().toString());
+            json.writeObjectFieldStart("stagesMillis");
+            for (Map.Entry<String, Double> stage : metrics.stageMillis().entrySet()) {
+                json.writeNumberField(stage.getKey(), round(stage.getValue()));
+            }
+            json.writeEndObject();
+            json.writeNumberField("totalMillis", round(totalMillis));
+            json.writeNumberField("operations", metrics.operations());
+            double alignMillis = metrics.stageMillis(RunMetrics.ALIGN);
+            json.writeNumberField("operationsPerSecond",
+                    alignMillis > 0 ? round(metrics.operations() * 1000.0 / alignMillis) : 0);
+            json.writeObjectFieldStart("counters");
+            json.writeNumberField("exactKeywordHits", metrics.keywordHits());
+            json.writeNumberField("fuzzyComparisons", metrics.fuzzyComparisons());
+            json.writeNumberField("fallbackAssignments", metrics.fallbacks());
+            json.writeNumberField("domainsScored", metrics.domainsScored());
+            if (cache.isEnabled()) {
+                json.writeNumberField("cacheHits", cache.hits());
+                json.writeNumberField("cacheMisses", cache.misses());
+            }
+            json.writeEndObject();
+            SortedMap<Integer, Double> areaRecall = metrics.areaRecall();
+            if (!areaRecall.isEmpty()) {
+                json.writeObjectFieldStart("areaRecall");
+                json.writeNumberField("operations", metrics.areaRecallOperations());
+                json.writeObjectFieldStart("byTopAreas");
+                for (Map.Entry<Integer, Double> recall : areaRecall.entrySet()) {
+                    json.writeNumberField(String.valueOf(recall.getKey()), Math.round(recall.getValue() * 10_000) / 10_000.0);
+                }
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write " + sink.describe(name), e);
+        }
+        log.info("Wrote {}", sink.describe(name));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Writes the {@code domains} array of {@code alignment.json}; also used for HTTP responses.
+     */
+    static void writeDomains(JsonGenerator json, List<DomainAlignment> alignments) throws IOException {
+        json.writeArrayFieldStart("domains");
+        for (DomainAlignment alignment : alignments) {
+            json.writeStartObject();
+            json.writeStringField("code", alignment.domain().getCode());
+            json.writeStringField("name", alignment.domain().getName());
+            writeStrings(json, "capabilities", alignment.domain().getCapabilities());
+            json.writeArrayFieldStart("operations");
             for (OperationAlignment op : alignment.operations()) {
-                Map<String, Object> opNode = new HashMap<>();
-                opNode.put("path", op.operation().path());
-                opNode.put("httpMethod", op.operation().httpMethod());
-                opNode.put("operationId", op.operation().operationId());
-                opNode.put("summary", op.operation().summary());
-                opNode.put("score", op.score());
-                opNode.put("matchedKeywords", op.matchedKeywords());
-                ops.add(opNode);
-            }
-            domain.put("operations", ops);
-            domains.add(domain);
-        }
-
-        payload.put("domains", domains);
-        mapper.writeValue(file.toFile(), payload);
-        log.info("Wrote {}", file.toAbsolutePath());
+                writeOperation(json, op);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private static void writeOperation(JsonGenerator json, OperationAlignment op) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("path", op.operation().path());
+        json.writeStringField("httpMethod", op.operation().httpMethod());
+        json.writeStringField("operationId", op.operation().operationId());
+        json.writeStringField("summary", op.operation().summary());
+        json.writeNumberField("score", op.score());
+        writeStrings(json, "matchedKeywords", op.matchedKeywords());
+        if (!op.candidates().isEmpty()) {
+            json.writeArrayFieldStart("candidates");
+            for (DomainCandidate candidate : op.candidates()) {
+                json.writeStartObject();
+                json.writeStringField("code", candidate.domain().getCode());
+                json.writeStringField("name", candidate.domain().getName());
+                json.writeNumberField("score", candidate.score());
+                writeStrings(json, "matchedKeywords", candidate.matchedKeywords());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeNumberField("margin", op.margin());
+        }
+        json.writeEndObject();
+    }
+
+    private static void writeStrings(JsonGenerator json, String field, List<String> values) throws IOException {
+        json.writeArrayFieldStart(field);
+        for (String value : values) {
+            json.writeString(value);
+        }
+        json.writeEndArray();
+    }
+
+    /**
+     * Writes the portfolio rollup: operations per BIAN domain across every spec, with the count
+     * contributed by each spec, plus any specs that failed to align.
+     */
+    public void writePortfolio(Path outputDir, List<NavigatorResult> results, Map<Path, String> failures) {
+        Map<String, PortfolioDomain> rollup = new TreeMap<>();
+        for (NavigatorResult result : results) {
+            for (NavigatorResult.DomainCount domain : result.domains()) {
+                rollup.computeIfAbsent(domain.code(), code -> new PortfolioDomain(domain.name()))
+                        .add(result.outputDir().getFileName().toString(), domain.operations());
+            }
+        }
+        OutputSink sink = OutputSink.directory(outputDir);
+        try {
+            writePortfolioMarkdown(sink, "portfolio-summary.md", results, failures, rollup);
+            writePortfolioJson(sink, "portfolio-summary.json", results, failures, rollup);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write portfolio summary to " + outputDir, e);
+        }
+    }
+
+    private void writePortfolioMarkdown(OutputSink sink,
+                                        String name,
+                                        List<NavigatorResult> results,
+                                        Map<Path, String> failures,
+                                        Map<String, PortfolioDomain> rollup) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(sink.open(name), StandardCharsets.UTF_8))) {
+            out.write("# Modernisation portfolio summary\n\n");
+            out.write("- Generated at: " + LocalDateTime.now() + "\n");
+            out.write("- Specs aligned: " + results.size() + "\n");
+            out.write("- Operations: " + results.stream().mapToInt(NavigatorResult::operationCount).sum() + "\n");
+            out.write("- Domains discovered: " + rollup.size() + "\n\n");
+
+            out.write("## Specs\n");
+            for (NavigatorResult result : results) {
+                out.write("  - ");
+                out.write(String.valueOf(result.outputDir().getFileName()));
+                out.write(" | spec: ");
+                out.write(result.specPath().toAbsolutePath().toString());
+                out.write(" | operations: " + result.operationCount());
+                out.write(" | domains: " + result.domains().size() + "\n");
+            }
+            out.write("\n");
+
+            if (!failures.isEmpty()) {
+                out.write("## Failed specs\n");
+                for (Map.Entry<Path, String> failure : failures.entrySet()) {
+                    out.write("  - " + failure.getKey().toAbsolutePath() + " | error: " + failure.getValue() + "\n");
+                }
+                out.write("\n");
+            }
+
+            for (Map.Entry<String, PortfolioDomain> entry : rollup.entrySet()) {
+                PortfolioDomain domain = entry.getValue();
+                out.write("## " + domain.name + " (" + entry.getKey() + ")\n");
+                out.write("- Operations: " + domain.operations + "\n");
+                for (Map.Entry<String, Integer> spec : domain.bySpec.entrySet()) {
+                    out.write("  - " + spec.getKey() + ": " + spec.getValue() + "\n");
+                }
+                out.write("\n");
+            }
+        }
+        log.info("Wrote {}", sink.describe(name));
+    }
+
+    private void writePortfolioJson(OutputSink sink,
+                                    String name,
+                                    List<NavigatorResult> results,
+                                    Map<Path, String> failures,
+                                    Map<String, PortfolioDomain> rollup) throws IOException {
+        try (OutputStream stream = new BufferedOutputStream(sink.open(name));
+             JsonGenerator json = mapper.writer().createGenerator(stream, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("generatedAt", LocalDateTime.now().toString());
+
+            json.writeArrayFieldStart("specs");
+            for (NavigatorResult result : results) {
+                json.writeStartObject();
+                json.writeStringField("name", result.outputDir().getFileName().toString());
+                json.writeStringField("specPath", result.specPath().toAbsolutePath().toString());
+                json.writeNumberField("operations", result.operationCount());
+                json.writeNumberField("domains", result.domains().size());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("failures");
+            for (Map.Entry<Path, String> failure : failures.entrySet()) {
+                json.writeStartObject();
+                json.writeStringField("specPath", failure.getKey().toAbsolutePath().toString());
+                json.writeStringField("error", failure.getValue());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("domains");
+            for (Map.Entry<String, PortfolioDomain> entry : rollup.entrySet()) {
+                PortfolioDomain domain = entry.getValue();
+                json.writeStartObject();
+                json.writeStringField("code", entry.getKey());
+                json.writeStringField("name", domain.name);
+                json.writeNumberField("operations", domain.operations);
+                json.writeObjectFieldStart("operationsBySpec");
+                for (Map.Entry<String, Integer> spec : domain.bySpec.entrySet()) {
+                    json.writeNumberField(spec.getKey(), spec.getValue());
+                }
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        log.info("Wrote {}", sink.describe(name));
+    }
+
+    private static final class PortfolioDomain {
+        private final String name;
+        private final Map<String, Integer> bySpec = new LinkedHashMap<>();
+        private int operations;
+
+        private PortfolioDomain(String name) {
+            this.name = name;
+        }
+
+        private void add(String spec, int count) {
+            bySpec.merge(spec, count, Integer::sum);
+            operations += count;
+        }
     }
 }
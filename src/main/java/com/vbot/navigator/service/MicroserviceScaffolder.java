@@ -2,59 +2,180 @@ package com.vbot.navigator.service;
 
 import com.vbot.navigator.model.DomainAlignment;
 import com.vbot.navigator.model.OperationAlignment;
-import com.vbot.navigator.util.NameUtils;
+import com.vbot.navigator.util.NameRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
+/**
+ * Generates one Spring Boot service per aligned domain, into a directory or straight into an archive
+ * through an {@link OutputSink}. Services are generated concurrently, one task per service directory.
+ * In a directory a file is only rewritten when its content hash differs from the file already on
+ * disk, so unchanged services keep their timestamps and do not trigger rebuilds, and service
+ * directories left over from domains that are no longer aligned are reported, or removed on request.
+ */
 @Component
 public class MicroserviceScaffolder {
 
     private static final Logger log = LoggerFactory.getLogger(MicroserviceScaffolder.class);
 
-    public void scaffold(Path baseDir, List<DomainAlignment> alignments) {
+    public ScaffoldReport scaffold(Path baseDir, List<DomainAlignment> alignments) {
+        return scaffold(baseDir, alignments, false);
+    }
+
+    public ScaffoldReport scaffold(Path baseDir, List<DomainAlignment> alignments, boolean removeStale) {
         try {
             Files.createDirectories(baseDir);
-            for (DomainAlignment alignment : alignments) {
-                if ("UNMAPPED".equalsIgnoreCase(alignment.domain().getCode())) {
-                    continue; // do not generate a service for unmapped operations
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to scaffold microservices under " + baseDir, e);
+        }
+        return scaffold(OutputSink.directory(baseDir), alignments, removeStale);
+    }
+
+    /**
+     * Scaffolds into a directory or archive sink. Stale services can only be detected, and removed,
+     * when the sink is a directory.
+     */
+    public ScaffoldReport scaffold(OutputSink sink, List<DomainAlignment> alignments, boolean removeStale) {
+        // Domains whose names share a slug get distinct directories (payments, payments2) rather than
+        // overwriting each other.
+        NameRegistry names = new NameRegistry();
+        NameRegistry.Scope serviceSlugs = names.scope();
+        Map<String, DomainAlignment> bySlug = new LinkedHashMap<>();
+        for (DomainAlignment alignment : alignments) {
+            if ("UNMAPPED".equalsIgnoreCase(alignment.domain().getCode())) {
+                continue; // do not generate a service for unmapped operations
+            }
+            bySlug.put(serviceSlugs.claim(names.slug(alignment.domain().getName())), alignment);
+        }
+
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        try {
+            if (!bySlug.isEmpty()) {
+                List<Callable<Void>> tasks = new ArrayList<>();
+                bySlug.forEach((slug, alignment) -> tasks.add(() -> {
+                    createService(sink, names, slug, alignment, written, skipped);
+                    return null;
+                }));
+                int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+                try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+                    for (Future<Void> future : pool.invokeAll(tasks)) {
+                        future.get();
+                    }
                 }
-                createService(baseDir, alignment);
             }
+            List<Path> stale = sink.directory().isPresent()
+                    ? staleServices(sink.directory().get(), bySlug.keySet(), removeStale)
+                    : List.of();
+            log.info("Scaffolded {} microservices under {}: {} files written, {} unchanged files skipped",
+                    bySlug.size(), sink.describe(""), written.get(), skipped.get());
+            return new ScaffoldReport(bySlug.size(), written.get(), skipped.get(), stale);
         } catch (IOException e) {
-            throw new IllegalStateException("Failed to scaffold microservices under " + baseDir, e);
+            throw new IllegalStateException("Failed to scaffold microservices under " + sink.describe(""), e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to scaffold microservices under " + sink.describe(""), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scaffolding microservices under " + sink.describe(""), e);
         }
     }
 
-    private void createService(Path baseDir, DomainAlignment alignment) throws IOException {
-        String slug = NameUtils.slug(alignment.domain().getName());
-        String packageName = NameUtils.packageName("com.generated", slug);
-        String className = NameUtils.className(alignment.domain().getName()) + "Application";
-        String controllerName = NameUtils.className(alignment.domain().getName()) + "Controller";
+    private void createService(OutputSink sink,
+                               NameRegistry names,
+                               String slug,
+                               DomainAlignment alignment,
+                               AtomicInteger written,
+                               AtomicInteger skipped) throws IOException {
+        String packageName = names.packageName("com.generated", slug);
+        String typeName = names.className(alignment.domain().getName());
+        String className = typeName + "Application";
+        String controllerName = typeName + "Controller";
+
+        String serviceDir = slug + "/";
+        String javaDir = serviceDir + "src/main/java/" + packageName.replace('.', '/') + "/";
+        String controllerDir = javaDir + "api/";
+
+        sink.createDirectory(serviceDir + "src/main/resources");
+
+        int changed = 0;
+        changed += write(sink, serviceDir + "pom.xml", servicePom(slug, alignment.domain().getName()), written, skipped);
+        changed += write(sink, javaDir + className + ".java", applicationClass(packageName, className), written, skipped);
+        changed += write(sink, controllerDir + controllerName + ".java", controller(names, slug, packageName + ".api", controllerName, alignment), written, skipped);
+        changed += write(sink, serviceDir + "README.md", serviceReadme(alignment), written, skipped);
 
-        Path serviceDir = baseDir.resolve(slug);
-        Path javaDir = serviceDir.resolve("src/main/java/" + packageName.replace('.', '/'));
-        Path controllerDir = javaDir.resolve("api");
-        Path resourcesDir = serviceDir.resolve("src/main/resources");
+        if (changed > 0) {
+            log.info("Scaffolded microservice {} ({} files updated)", sink.describe(slug), changed);
+        } else {
+            log.debug("Microservice {} is up to date", sink.describe(slug));
+        }
+    }
 
-        Files.createDirectories(controllerDir);
-        Files.createDirectories(resourcesDir);
+    /**
+     * Writes the content unless the sink already holds exactly that content. Returns 1 when written.
+     */
+    private int write(OutputSink sink, String path, String content, AtomicInteger written, AtomicInteger skipped) throws IOException {
+        if (sink.write(path, content.getBytes(StandardCharsets.UTF_8))) {
+            written.incrementAndGet();
+            return 1;
+        }
+        skipped.incrementAndGet();
+        return 0;
+    }
 
-        writeServicePom(serviceDir, slug, alignment.domain().getName());
-        writeApplicationClass(javaDir.resolve(className + ".java"), packageName, className);
-        writeController(controllerDir.resolve(controllerName + ".java"), packageName + ".api", controllerName, alignment);
-        writeServiceReadme(serviceDir, alignment);
+    /**
+     * Service directories (those holding a pom.xml) whose domain was not generated in this run.
+     */
+    private List<Path> staleServices(Path baseDir, Set<String> current, boolean remove) throws IOException {
+        List<Path> stale = new ArrayList<>();
+        try (Stream<Path> children = Files.list(baseDir)) {
+            for (Path dir : children.sorted().toList()) {
+                if (Files.isDirectory(dir)
+                        && Files.isRegularFile(dir.resolve("pom.xml"))
+                        && !current.contains(dir.getFileName().toString())) {
+                    stale.add(dir);
+                }
+            }
+        }
+        for (Path dir : stale) {
+            if (remove) {
+                deleteRecursively(dir);
+                log.info("Removed stale microservice {}", dir.toAbsolutePath());
+            } else {
+                log.warn("Stale microservice {} no longer matches an aligned domain (use --prune-scaffolds to remove it)", dir.toAbsolutePath());
+            }
+        }
+        return stale;
+    }
 
-        log.info("Scaffolded microservice {}", serviceDir.toAbsolutePath());
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
     }
 
-    private void writeServicePom(Path serviceDir, String artifactId, String serviceName) throws IOException {
-        String pom = """
+    private String servicePom(String artifactId, String serviceName) {
+        return """
                 <project xmlns="http://maven.apache.org/POM/4.0.0"
                          xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
                          xsi:schemaLocation="http://maven.apache.org/POM/4.0.0 https://maven.apache.org/xsd/maven-4.0.0.xsd">
@@ -92,12 +213,10 @@ public class MicroserviceScaffolder {
                     </build>
                 </project>
                 """.formatted(artifactId, serviceName);
-
-        Files.writeString(serviceDir.resolve("pom.xml"), pom);
     }
 
-    private void writeApplicationClass(Path file, String packageName, String className) throws IOException {
-        String content = """
+    private String applicationClass(String packageName, String className) {
+        return """
                 package %s;
 
                 import org.springframework.boot.SpringApplication;
@@ -110,35 +229,31 @@ public class MicroserviceScaffolder {
                     }
                 }
                 """.formatted(packageName, className, className);
-
-        Files.writeString(file, content);
     }
 
-    private void writeController(Path file,
-                                 String packageName,
-                                 String controllerName,
-                                 DomainAlignment alignment) throws IOException {
+    private String controller(NameRegistry names, String slug, String packageName, String controllerName, DomainAlignment alignment) {
         StringBuilder builder = new StringBuilder();
         builder.append("package ").append(packageName).append(";\n\n")
                 .append("import org.springframework.http.HttpStatus;\n")
                 .append("import org.springframework.http.ResponseEntity;\n")
                 .append("import org.springframework.web.bind.annotation.*;\n\n")
                 .append("@RestController\n")
-                .append("@RequestMapping(\"/").append(NameUtils.slug(alignment.domain().getName())).append("\")\n")
+                .append("@RequestMapping(\"/").append(slug).append("\")\n")
                 .append("public class ").append(controllerName).append(" {\n\n");
 
+        // Distinct operation ids can map to the same Java method name; later ones get a numeric suffix.
+        NameRegistry.Scope methodNames = names.scope();
         for (OperationAlignment op : alignment.operations()) {
-            appendEndpoint(builder, op);
+            appendEndpoint(builder, op, methodNames.claim(names.methodName(op.operation().operationId())));
         }
 
         builder.append("}\n");
-        Files.writeString(file, builder.toString());
+        return builder.toString();
     }
 
-    private void appendEndpoint(StringBuilder builder, OperationAlignment alignment) {
+    private void appendEndpoint(StringBuilder builder, OperationAlignment alignment, String methodName) {
         String method = alignment.operation().httpMethod().toUpperCase();
         String endpointPath = alignment.operation().path();
-        String methodName = NameUtils.methodName(alignment.operation().operationId());
 
         builder.append("    ")
                 .append(mappingFor(method, endpointPath))
@@ -166,7 +281,7 @@ public class MicroserviceScaffolder {
         };
     }
 
-    private void writeServiceReadme(Path serviceDir, DomainAlignment alignment) throws IOException {
+    private String serviceReadme(DomainAlignment alignment) {
         StringBuilder builder = new StringBuilder();
         builder.append("# ").append(alignment.domain().getName()).append(" service\n\n");
         builder.append("- BIAN domain: ").append(alignment.domain().getCode()).append("\n");
@@ -179,6 +294,13 @@ public class MicroserviceScaffolder {
             }
             builder.append("\n");
         }
-        Files.writeString(serviceDir.resolve("README.md"), builder.toString());
+        return builder.toString();
+    }
+
+    /**
+     * Outcome of one scaffolding run. {@code staleServices} lists directories left from domains that
+     * are no longer aligned; they have already been deleted when removal was requested.
+     */
+    public record ScaffoldReport(int services, int filesWritten, int filesSkipped, List<Path> staleServices) {
     }
 }
@@ -1,24 +1,44 @@
 package com.vbot.navigator.service;
 
+import com.vbot.navigator.config.CatalogueSnapshot;
+import com.vbot.navigator.model.AlignmentDelta;
 import com.vbot.navigator.model.ApiOperation;
+import com.vbot.navigator.model.BianServiceDomain;
 import com.vbot.navigator.model.DomainAlignment;
+import com.vbot.navigator.model.DomainCandidate;
 import com.vbot.navigator.model.NavigatorRequest;
+import com.vbot.navigator.model.NavigatorResult;
 import com.vbot.navigator.model.OperationAlignment;
-import com.vbot.navigator.util.NameUtils;
+import com.vbot.navigator.model.OutputArchive;
+import com.vbot.navigator.util.TokenDictionary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Service
 public class NavigatorService {
 
     private static final Logger log = LoggerFactory.getLogger(NavigatorService.class);
+    private static final String CACHE_DIR = ".navigator-cache";
+    private static final String ARCHIVE_FILE = "navigator-output.zip";
+    private static final String BINARY_FILE = "alignment.bin";
+    private static final int PIPELINE_CAPACITY = 1024;
 
     private final OpenApiSpecReader specReader;
     private final BianAlignmentService alignmentService;
@@ -35,38 +55,302 @@ public class NavigatorService {
         this.scaffolder = scaffolder;
     }
 
-    public void execute(NavigatorRequest request) {
+    /**
+     * Runs one spec through the pipeline. Parsing, alignment and grouping overlap (see
+     * {@link AlignmentPipeline}) and domains come out in catalogue order. Once every operation is
+     * grouped, the reports and the scaffolds are written concurrently. Each stage is timed into a
+     * fresh {@link RunMetrics}, which is written to {@code run-metrics.json} next to
+     * {@code alignment.json}; alignment and report writing are also recorded as JFR events. The
+     * operations are encoded into a {@link TokenDictionary} of their own, dropped with the run.
+     */
+    public NavigatorResult execute(NavigatorRequest request) {
         log.info("Starting alignment for spec {}", request.specPath().toAbsolutePath());
-        List<ApiOperation> operations = specReader.readOperations(request.specPath());
-        List<OperationAlignment> aligned = alignmentService.align(operations);
-        List<DomainAlignment> domainAlignments = groupByDomain(aligned);
+        RunMetrics metrics = RunMetrics.create();
+        long pipelineStart = System.nanoTime();
+        AlignmentEvent alignmentEvent = new AlignmentEvent();
+        alignmentEvent.begin();
+        AlignmentCache cache = request.useCache()
+                ? alignmentService.openCache(request.outputDir().resolve(CACHE_DIR), request.alignmentOptions())
+                : AlignmentCache.disabled();
+        CatalogueSnapshot snapshot = alignmentService.snapshotFor(cache);
+        TokenDictionary dictionary = new TokenDictionary();
+        AlignmentPipeline.Result pipeline = new AlignmentPipeline(request.alignmentOptions().parallelism(), PIPELINE_CAPACITY)
+                .run(consumer -> specReader.readOperations(request.specPath(), request.readerMode(), dictionary, consumer),
+                        alignmentService.aligner(snapshot, request.alignmentOptions(), cache, metrics),
+                        new DomainAccumulator(snapshot));
+        alignmentService.saveCache(cache);
+        alignmentEvent.end();
+        int operationCount = pipeline.domains().operations();
+        if (alignmentEvent.shouldCommit()) {
+            alignmentEvent.spec = request.specPath().toString();
+            alignmentEvent.operations = operationCount;
+            alignmentEvent.fallbacks = metrics.fallbacks();
+            alignmentEvent.fuzzyComparisons = metrics.fuzzyComparisons();
+            alignmentEvent.commit();
+        }
+        metrics.recordStage(RunMetrics.PARSE, pipelineStart, pipeline.parseEndNanos());
+        metrics.recordStage(RunMetrics.ALIGN, pipelineStart);
+
+        long stageStart = System.nanoTime();
+        List<DomainAlignment> domainAlignments = pipeline.domains().domains();
+        metrics.recordStage(RunMetrics.GROUP, stageStart);
+
+        try (OutputSink archive = request.archive() == OutputArchive.NONE
+                ? null
+                : OutputSink.zip(request.outputDir().resolve(ARCHIVE_FILE));
+             ExecutorService scaffolding = Executors.newSingleThreadExecutor()) {
+            OutputSink reports = request.archive() == OutputArchive.ALL
+                    ? archive
+                    : OutputSink.directory(request.outputDir());
+
+            Future<Long> scaffoldEnd = null;
+            long scaffoldStart = System.nanoTime();
+            if (!request.generateScaffolds()) {
+                log.info("Skipping microservice scaffold generation (use --scaffold to enable).");
+            } else if (archive != null) {
+                scaffoldEnd = scaffolding.submit(() -> {
+                    scaffolder.scaffold(archive.resolve("microservices"), domainAlignments, false);
+                    return System.nanoTime();
+                });
+            } else {
+                Path scaffoldDir = request.outputDir().resolve("microservices");
+                scaffoldEnd = scaffolding.submit(() -> {
+                    scaffolder.scaffold(scaffoldDir, domainAlignments, request.pruneScaffolds());
+                    return System.nanoTime();
+                });
+            }
 
-        planWriter.write(request.outputDir(), request.specPath(), domainAlignments);
+            stageStart = System.nanoTime();
+            WriteEvent writeEvent = new WriteEvent();
+            writeEvent.begin();
+            planWriter.write(reports, request.specPath(), domainAlignments, request.binaryReport());
+            writeEvent.end();
+            if (writeEvent.shouldCommit()) {
+                writeEvent.spec = request.specPath().toString();
+                writeEvent.output = reports.describe("");
+                writeEvent.domains = domainAlignments.size();
+                writeEvent.commit();
+            }
+            metrics.recordStage(RunMetrics.WRITE, stageStart);
 
-        if (request.generateScaffolds()) {
-            Path scaffoldDir = request.outputDir().resolve("microservices");
-            scaffolder.scaffold(scaffoldDir, domainAlignments);
-        } else {
-            log.info("Skipping microservice scaffold generation (use --scaffold to enable).");
+            if (scaffoldEnd != null) {
+                metrics.recordStage(RunMetrics.SCAFFOLD, scaffoldStart, scaffoldEnd.get());
+            }
+            planWriter.writeRunMetrics(reports, request.specPath(), metrics, cache);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write archive " + request.outputDir().resolve(ARCHIVE_FILE), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to scaffold microservices for " + request.specPath(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scaffolding microservices for " + request.specPath(), e);
         }
 
+        if (cache.isEnabled()) {
+            log.info("Alignment cache: {} hits, {} misses", cache.hits(), cache.misses());
+        }
+        log.info("Aligned {} operations in {} ms ({} fuzzy comparisons, {} unmapped)",
+                metrics.operations(), Math.round(metrics.stageMillis(RunMetrics.ALIGN)),
+                metrics.fuzzyComparisons(), metrics.fallbacks());
+        if (!metrics.areaRecall().isEmpty()) {
+            StringJoiner recall = new StringJoiner(", ");
+            metrics.areaRecall().forEach((areas, share) -> recall.add(areas + ": " + String.format("%.2f%%", share * 100)));
+            log.info("Business-area recall against exhaustive scoring over {} operations, by areas kept: {}",
+                    metrics.areaRecallOperations(), recall);
+        }
         log.info("Alignment complete. Output under {}", request.outputDir().toAbsolutePath());
+        return NavigatorResult.of(request.specPath(), request.outputDir(), operationCount, domainAlignments);
+    }
+
+    /**
+     * Compares the spec with an earlier version of it and writes {@code alignment-delta.md} and
+     * {@code alignment-delta.json} (plus {@code run-metrics.json}) instead of the full reports; scaffolds
+     * are not generated. Only added operations and the new version of changed ones are scored. Removed,
+     * unchanged and the old version of changed operations keep the alignment an earlier run on the
+     * baseline recorded in the same output directory, see {@link #recordedAlignments}; those without one
+     * are re-scored with a warning.
+     */
+    public AlignmentDelta executeDelta(NavigatorRequest request, Path baselinePath) {
+        log.info("Comparing spec {} with baseline {}", request.specPath().toAbsolutePath(), baselinePath.toAbsolutePath());
+        RunMetrics metrics = RunMetrics.create();
+        long stageStart = System.nanoTime();
+        TokenDictionary dictionary = new TokenDictionary();
+        List<ApiOperation> baseline = specReader.readOperations(baselinePath, request.readerMode(), dictionary);
+        List<ApiOperation> current = specReader.readOperations(request.specPath(), request.readerMode(), dictionary);
+        metrics.recordStage(RunMetrics.PARSE, stageStart);
+
+        stageStart = System.nanoTime();
+        SpecDiff diff = SpecDiff.compare(baseline, current);
+        metrics.recordStage(RunMetrics.DIFF, stageStart);
+
+        stageStart = System.nanoTime();
+        AlignmentCache cache = request.useCache()
+                ? alignmentService.openCache(request.outputDir().resolve(CACHE_DIR), request.alignmentOptions())
+                : AlignmentCache.disabled();
+        List<ApiOperation> changedOrAdded = new ArrayList<>(diff.added().size() + diff.changed().size());
+        changedOrAdded.addAll(diff.added());
+        List<ApiOperation> recordedSide = new ArrayList<>(diff.changed().size() + diff.removed().size() + diff.unchanged().size());
+        for (SpecDiff.Change change : diff.changed()) {
+            changedOrAdded.add(change.current());
+            recordedSide.add(change.baseline());
+        }
+        recordedSide.addAll(diff.removed());
+        recordedSide.addAll(diff.unchanged());
+        Iterator<OperationAlignment> scored = alignmentService
+                .align(changedOrAdded, request.alignmentOptions(), cache, metrics)
+                .iterator();
+        Iterator<OperationAlignment> recorded = recordedAlignments(recordedSide, baselinePath, request, cache, metrics)
+                .iterator();
+        alignmentService.saveCache(cache);
+
+        List<OperationAlignment> added = next(scored, diff.added().size());
+        List<AlignmentDelta.Change> remapped = new ArrayList<>();
+        List<AlignmentDelta.Change> modified = new ArrayList<>();
+        for (int i = 0; i < diff.changed().size(); i++) {
+            AlignmentDelta.Change change = new AlignmentDelta.Change(recorded.next(), scored.next());
+            boolean sameDomain = Objects.equals(change.baseline().domain().getCode(), change.current().domain().getCode());
+            (sameDomain ? modified : remapped).add(change);
+        }
+        List<OperationAlignment> removed = next(recorded, diff.removed().size());
+        List<OperationAlignment> unchanged = next(recorded, diff.unchanged().size());
+        metrics.recordStage(RunMetrics.ALIGN, stageStart);
+        AlignmentDelta delta = new AlignmentDelta(request.specPath(), baselinePath, added, removed, remapped, modified, unchanged);
+
+        stageStart = System.nanoTime();
+        OutputSink reports = OutputSink.directory(request.outputDir());
+        planWriter.writeDelta(reports, delta);
+        metrics.recordStage(RunMetrics.WRITE, stageStart);
+        planWriter.writeRunMetrics(reports, request.specPath(), metrics, cache);
+
+        if (cache.isEnabled()) {
+            log.info("Alignment cache: {} hits, {} misses", cache.hits(), cache.misses());
+        }
+        log.info("Delta: {} added, {} removed, {} re-mapped, {} modified, {} unchanged. Output under {}",
+                added.size(), removed.size(), remapped.size(), modified.size(), unchanged.size(),
+                request.outputDir().toAbsolutePath());
+        return delta;
+    }
+
+    /**
+     * The alignments an earlier run on the baseline recorded for these operations: first the entry the
+     * alignment cache holds for the operation's fingerprint, otherwise the operation with the same method
+     * and path in the {@code alignment.bin} of the output directory, when that file was written for the
+     * baseline after its last change and names only domains of the current catalogue. Operations found in
+     * neither are scored, and a warning says how many, since then the delta costs more than the change.
+     */
+    private List<OperationAlignment> recordedAlignments(List<ApiOperation> operations,
+                                                        Path baselinePath,
+                                                        NavigatorRequest request,
+                                                        AlignmentCache cache,
+                                                        RunMetrics metrics) {
+        Map<String, Recorded> binary = recordedInBinary(request.outputDir().resolve(BINARY_FILE), baselinePath);
+        Map<String, BianServiceDomain> domains = new HashMap<>();
+        CatalogueSnapshot snapshot = alignmentService.snapshotFor(cache);
+        domains.put(snapshot.fallbackDomain().getCode(), snapshot.fallbackDomain());
+        snapshot.domains().forEach(domain -> domains.putIfAbsent(domain.getCode(), domain));
+
+        OperationAlignment[] alignments = new OperationAlignment[operations.size()];
+        List<ApiOperation> missing = new ArrayList<>();
+        List<Integer> missingAt = new ArrayList<>();
+        for (int i = 0; i < alignments.length; i++) {
+            ApiOperation operation = operations.get(i);
+            OperationAlignment alignment = cache.lookup(operation.fingerprint(), operation);
+            if (alignment == null) {
+                Recorded entry = binary.get(SpecDiff.key(operation.httpMethod(), operation.path()));
+                alignment = entry == null ? null : entry.toAlignment(operation, domains);
+            }
+            if (alignment == null) {
+                missing.add(operation);
+                missingAt.add(i);
+            } else {
+                alignments[i] = alignment;
+            }
+        }
+        if (!missing.isEmpty()) {
+            log.warn("No recorded alignment for {} of {} baseline operations in the alignment cache or {}; re-scoring them. "
+                            + "Run the baseline with --binary (or with the cache) into {} first to score only the change.",
+                    missing.size(), operations.size(), BINARY_FILE, request.outputDir().toAbsolutePath());
+            List<OperationAlignment> rescored = alignmentService.align(missing, request.alignmentOptions(), cache, metrics);
+            for (int m = 0; m < missing.size(); m++) {
+                alignments[missingAt.get(m)] = rescored.get(m);
+            }
+        }
+        return Arrays.asList(alignments);
     }
 
-    private List<DomainAlignment> groupByDomain(List<OperationAlignment> alignments) {
-        Map<String, List<OperationAlignment>> byCode = new HashMap<>();
-        Map<String, OperationAlignment> representative = new HashMap<>();
+    /**
+     * The operations of {@code alignment.bin} by method and path, or none when the file is missing,
+     * unreadable, written for another spec or older than the baseline's last change.
+     */
+    private static Map<String, Recorded> recordedInBinary(Path file, Path baselinePath) {
+        try {
+            if (!Files.isRegularFile(file)
+                    || Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(baselinePath)) < 0) {
+                return Map.of();
+            }
+            BinaryAlignmentFile binary = BinaryAlignmentFile.open(file);
+            if (!baselinePath.toAbsolutePath().toString().equals(binary.specPath())) {
+                return Map.of();
+            }
+            Map<String, Recorded> recorded = new HashMap<>(binary.operationCount() * 2);
+            for (BinaryAlignmentFile.Domain domain : binary.domains()) {
+                for (BinaryAlignmentFile.Operation operation : domain.operations()) {
+                    recorded.putIfAbsent(SpecDiff.key(operation.httpMethod(), operation.path()), new Recorded(domain.code(), operation));
+                }
+            }
+            return recorded;
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Ignoring {}: {}", file, e.getMessage());
+            return Map.of();
+        }
+    }
 
-        for (OperationAlignment alignment : alignments) {
-            String code = NameUtils.safeCode(alignment.domain().getCode());
-            byCode.computeIfAbsent(code, k -> new ArrayList<>()).add(alignment);
-            representative.putIfAbsent(code, alignment);
+    /**
+     * An operation as {@code alignment.bin} recorded it, under the code of its domain.
+     */
+    private record Recorded(String domainCode, BinaryAlignmentFile.Operation operation) {
+
+        /**
+         * The recorded alignment for {@code op}, or {@code null} when it names a domain the catalogue no
+         * longer has.
+         */
+        OperationAlignment toAlignment(ApiOperation op, Map<String, BianServiceDomain> domains) {
+            BianServiceDomain domain = domains.get(domainCode);
+            if (domain == null) {
+                return null;
+            }
+            List<DomainCandidate> candidates = new ArrayList<>(operation.candidates().size());
+            for (BinaryAlignmentFile.Candidate candidate : operation.candidates()) {
+                BianServiceDomain candidateDomain = domains.get(candidate.code());
+                if (candidateDomain == null) {
+                    return null;
+                }
+                candidates.add(new DomainCandidate(candidateDomain, candidate.score(), candidate.matchedKeywords()));
+            }
+            return new OperationAlignment(op, domain, operation.score(), operation.matchedKeywords(), candidates, operation.margin());
         }
+    }
+
+    private static List<OperationAlignment> next(Iterator<OperationAlignment> aligned, int count) {
+        List<OperationAlignment> taken = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            taken.add(aligned.next());
+        }
+        return taken;
+    }
 
-        List<DomainAlignment> grouped = new ArrayList<>();
-        for (Map.Entry<String, List<OperationAlignment>> entry : byCode.entrySet()) {
-            grouped.add(new DomainAlignment(representative.get(entry.getKey()).domain(), entry.getValue()));
+    /**
+     * Groups alignments made against {@code snapshot} by domain, in catalogue order, as every run
+     * does before writing its reports.
+     */
+    public static List<DomainAlignment> groupByDomain(CatalogueSnapshot snapshot, List<OperationAlignment> alignments) {
+        DomainAccumulator accumulator = new DomainAccumulator(snapshot);
+        for (int i = 0; i < alignments.size(); i++) {
+            accumulator.add(i, alignments.get(i));
         }
-        return grouped;
+        return accumulator.domains();
     }
 }
@@ -1,6 +1,12 @@
 package com.vbot.navigator.service;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.vbot.navigator.model.ApiOperation;
+import com.vbot.navigator.model.SpecReaderMode;
+import com.vbot.navigator.util.TokenDictionary;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.Operation;
 import io.swagger.v3.oas.models.PathItem;
@@ -11,21 +17,232 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Component
 public class OpenApiSpecReader {
 
     private static final Logger log = LoggerFactory.getLogger(OpenApiSpecReader.class);
 
-    public List<ApiOperation> readOperations(Path specPath) {
+    /**
+     * Emission order for the operations of one path item, matching {@link PathItem#readOperationsMap()}.
+     */
+    private static final List<PathItem.HttpMethod> METHOD_ORDER = List.of(
+            PathItem.HttpMethod.GET,
+            PathItem.HttpMethod.PUT,
+            PathItem.HttpMethod.POST,
+            PathItem.HttpMethod.DELETE,
+            PathItem.HttpMethod.PATCH,
+            PathItem.HttpMethod.HEAD,
+            PathItem.HttpMethod.OPTIONS,
+            PathItem.HttpMethod.TRACE);
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final YAMLFactory yamlFactory = new YAMLFactory();
+
+    /**
+     * Reads the operations of the spec, encoding them into {@code dictionary}.
+     */
+    public List<ApiOperation> readOperations(Path specPath, SpecReaderMode mode, TokenDictionary dictionary) {
+        if (mode != SpecReaderMode.STREAMING) {
+            return readWithSwaggerParser(specPath, dictionary);
+        }
+        List<ApiOperation> operations = new ArrayList<>();
+        streamOperations(specPath, dictionary, operations::add);
+        log.info("Parsed {} operations from {}", operations.size(), specPath);
+        return operations;
+    }
+
+    /**
+     * Hands each operation of the spec to the consumer. The streaming mode does so while parsing; the
+     * swagger-parser mode can only start once the whole spec has been parsed and resolved.
+     */
+    public void readOperations(Path specPath,
+                               SpecReaderMode mode,
+                               TokenDictionary dictionary,
+                               Consumer<ApiOperation> consumer) {
+        if (mode != SpecReaderMode.STREAMING) {
+            readWithSwaggerParser(specPath, dictionary).forEach(consumer);
+            return;
+        }
+        int[] count = new int[1];
+        streamOperations(specPath, dictionary, operation -> {
+            count[0]++;
+            consumer.accept(operation);
+        });
+        log.info("Parsed {} operations from {}", count[0], specPath);
+    }
+
+    /**
+     * Walks only the {@code paths} section of a YAML or JSON spec with Jackson's streaming parser and
+     * hands each operation to the consumer as soon as its path item has been read. Nothing is resolved
+     * or validated: path items given as {@code $ref} are skipped with a warning, and operations come
+     * out in the same order as the swagger-parser mode.
+     */
+    public void streamOperations(Path specPath, TokenDictionary dictionary, Consumer<ApiOperation> consumer) {
+        requireExists(specPath);
+        try (JsonParser parser = parserFor(specPath)) {
+            streamOperations(parser, specPath.toString(), dictionary, consumer);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not parse OpenAPI spec at " + specPath, e);
+        }
+    }
+
+    /**
+     * Reads the operations of a spec held in memory, such as a request body, with the streaming parser.
+     * Content starting with '{' is parsed as JSON, anything else as YAML. The operations are encoded
+     * into {@code dictionary}.
+     */
+    public List<ApiOperation> readOperations(byte[] content, String source, TokenDictionary dictionary) {
+        List<ApiOperation> operations = new ArrayList<>();
+        try (JsonParser parser = (startsWithBrace(content) ? jsonFactory : yamlFactory).createParser(content)) {
+            streamOperations(parser, source, dictionary, operations::add);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not parse OpenAPI spec at " + source, e);
+        }
+        return operations;
+    }
+
+    private void streamOperations(JsonParser parser,
+                                  String specPath,
+                                  TokenDictionary dictionary,
+                                  Consumer<ApiOperation> consumer) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalStateException("Could not parse OpenAPI spec at " + specPath + ": expected a top-level object");
+        }
+        boolean sawPaths = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("paths".equals(field) && value == JsonToken.START_OBJECT) {
+                sawPaths = true;
+                readPaths(parser, specPath, dictionary, consumer);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (!sawPaths) {
+            throw new IllegalStateException("Could not parse OpenAPI spec at " + specPath + ": no paths object");
+        }
+    }
+
+    private static boolean startsWithBrace(byte[] content) {
+        for (byte b : content) {
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                return b == '{';
+            }
+        }
+        return false;
+    }
+
+    private void readPaths(JsonParser parser,
+                           String specPath,
+                           TokenDictionary dictionary,
+                           Consumer<ApiOperation> consumer) throws IOException {
+        int skippedRefs = 0;
+        Map<PathItem.HttpMethod, RawOperation> item = new EnumMap<>(PathItem.HttpMethod.class);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String path = parser.currentName();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            item.clear();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                PathItem.HttpMethod method = httpMethod(field);
+                if ("$ref".equals(field)) {
+                    skippedRefs++;
+                } else if (method != null && value == JsonToken.START_OBJECT) {
+                    item.put(method, readOperation(parser));
+                    continue;
+                }
+                parser.skipChildren();
+            }
+            for (PathItem.HttpMethod method : METHOD_ORDER) {
+                RawOperation raw = item.get(method);
+                if (raw != null) {
+                    consumer.accept(toApiOperation(path, method, raw.operationId, raw.summary, raw.description, raw.tags,
+                            dictionary));
+                }
+            }
+        }
+        if (skippedRefs > 0) {
+            log.warn("Skipped {} $ref path items in {}; use the swagger reader to resolve them.", skippedRefs, specPath);
+        }
+    }
+
+    private RawOperation readOperation(JsonParser parser) throws IOException {
+        RawOperation raw = new RawOperation();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "operationId" -> raw.operationId = scalar(parser, value);
+                case "summary" -> raw.summary = scalar(parser, value);
+                case "description" -> raw.description = scalar(parser, value);
+                case "tags" -> raw.tags = stringArray(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+        return raw;
+    }
+
+    private String scalar(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        return value == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    private List<String> stringArray(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            String text = scalar(parser, token);
+            if (text != null) {
+                values.add(text);
+            }
+        }
+        return values;
+    }
+
+    private PathItem.HttpMethod httpMethod(String field) {
+        for (PathItem.HttpMethod method : METHOD_ORDER) {
+            if (method.name().equalsIgnoreCase(field)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private JsonParser parserFor(Path specPath) throws IOException {
+        String name = specPath.getFileName().toString().toLowerCase();
+        JsonFactory factory = name.endsWith(".json") ? jsonFactory : yamlFactory;
+        return factory.createParser(specPath.toFile());
+    }
+
+    private void requireExists(Path specPath) {
         if (!Files.exists(specPath)) {
             throw new IllegalArgumentException("Spec not found: " + specPath.toAbsolutePath());
         }
+    }
+
+    private List<ApiOperation> readWithSwaggerParser(Path specPath, TokenDictionary dictionary) {
+        requireExists(specPath);
 
         ParseOptions options = new ParseOptions();
         options.setResolve(true);
@@ -47,7 +264,7 @@ public class OpenApiSpecReader {
             for (Map.Entry<PathItem.HttpMethod, Operation> opEntry : opMap.entrySet()) {
                 PathItem.HttpMethod method = opEntry.getKey();
                 Operation operation = opEntry.getValue();
-                operations.add(toApiOperation(path, method, operation));
+                operations.add(toApiOperation(path, method, operation, dictionary));
             }
         }
 
@@ -55,8 +272,18 @@ public class OpenApiSpecReader {
         return operations;
     }
 
-    private ApiOperation toApiOperation(String path, PathItem.HttpMethod method, Operation operation) {
-        String operationId = operation.getOperationId();
+    private ApiOperation toApiOperation(String path, PathItem.HttpMethod method, Operation operation, TokenDictionary dictionary) {
+        return toApiOperation(path, method, operation.getOperationId(), operation.getSummary(), operation.getDescription(),
+                operation.getTags(), dictionary);
+    }
+
+    private ApiOperation toApiOperation(String path,
+                                        PathItem.HttpMethod method,
+                                        String operationId,
+                                        String summary,
+                                        String description,
+                                        List<String> tags,
+                                        TokenDictionary dictionary) {
         if (operationId == null || operationId.isBlank()) {
             operationId = (method.name().toLowerCase() + "_" + path.replace("/", "_")).replaceAll("[^a-zA-Z0-9_]", "");
         }
@@ -65,9 +292,17 @@ public class OpenApiSpecReader {
                 path,
                 method.name(),
                 operationId,
-                operation.getSummary(),
-                operation.getDescription(),
-                operation.getTags()
+                summary,
+                description,
+                tags,
+                dictionary
         );
     }
+
+    private static final class RawOperation {
+        private String operationId;
+        private String summary;
+        private String description;
+        private List<String> tags;
+    }
 }
@@ -0,0 +1,54 @@
+package com.vbot.navigator.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Destination for generated reports and scaffolds, addressed by '/'-separated relative paths. The
+ * same content can go to a directory tree ({@link #directory(Path)}) or, entry by entry, into a single
+ * zip archive ({@link #zip(Path)}) without ever touching the file system per file. Writes may come
+ * from several threads.
+ */
+public interface OutputSink extends Closeable {
+
+    static OutputSink directory(Path root) {
+        return new DirectorySink(root);
+    }
+
+    static OutputSink zip(Path archive) throws IOException {
+        return new ZipSink(archive);
+    }
+
+    /**
+     * Opens a stream for one output; the output is complete when the stream is closed.
+     */
+    OutputStream open(String path) throws IOException;
+
+    /**
+     * Writes one output. Returns {@code false} when the destination already holds exactly this
+     * content and nothing was written.
+     */
+    boolean write(String path, byte[] content) throws IOException;
+
+    void createDirectory(String path) throws IOException;
+
+    /**
+     * The directory outputs are written to, when this sink writes to the file system.
+     */
+    Optional<Path> directory();
+
+    /**
+     * Human-readable location of an output, for logging.
+     */
+    String describe(String path);
+
+    /**
+     * A view of this sink with every path under {@code prefix}. Closing the view does nothing.
+     */
+    default OutputSink resolve(String prefix) {
+        return new PrefixedSink(this, prefix.endsWith("/") ? prefix : prefix + "/");
+    }
+}
@@ -0,0 +1,114 @@
+package com.vbot.navigator.service;
+
+import com.vbot.navigator.model.NavigatorRequest;
+import com.vbot.navigator.model.NavigatorResult;
+import com.vbot.navigator.util.NameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Aligns many specs in one run. Specs are processed by a fixed pool of workers that share the
+ * application's single catalogue and alignment engine; each spec writes to its own subdirectory and
+ * a portfolio rollup is written at the top of the output directory.
+ */
+@Service
+public class PortfolioService {
+
+    private static final Logger log = LoggerFactory.getLogger(PortfolioService.class);
+
+    private final NavigatorService navigatorService;
+    private final GenerationPlanWriter planWriter;
+
+    public PortfolioService(NavigatorService navigatorService, GenerationPlanWriter planWriter) {
+        this.navigatorService = navigatorService;
+        this.planWriter = planWriter;
+    }
+
+    /**
+     * Runs every spec with the settings of {@code settings} (its own spec path is ignored) and returns
+     * the per-spec results in input order.
+     */
+    public List<NavigatorResult> execute(List<Path> specPaths, NavigatorRequest settings, int workers) {
+        long started = System.nanoTime();
+        Map<Path, Path> outputDirs = outputDirs(specPaths, settings.outputDir());
+        log.info("Starting portfolio alignment of {} specs with {} workers", specPaths.size(), workers);
+
+        Batch batch = run(outputDirs, settings, workers);
+        List<NavigatorResult> results = batch.results();
+        Map<Path, String> failures = batch.failures();
+
+        planWriter.writePortfolio(settings.outputDir(), results, failures);
+        log.info("Portfolio alignment of {} specs finished in {} ms ({} failed). Output under {}",
+                specPaths.size(), (System.nanoTime() - started) / 1_000_000, failures.size(),
+                settings.outputDir().toAbsolutePath());
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException(failures.size() + " of " + specPaths.size() + " specs failed to align: " + failures.keySet());
+        }
+        return results;
+    }
+
+    /**
+     * Aligns each spec into its output directory on a pool of {@code workers} threads. Failures are
+     * logged and collected rather than thrown; results keep the iteration order of {@code outputDirs}.
+     */
+    Batch run(Map<Path, Path> outputDirs, NavigatorRequest settings, int workers) {
+        List<Path> specPaths = new ArrayList<>(outputDirs.keySet());
+        List<Future<NavigatorResult>> futures = new ArrayList<>(specPaths.size());
+        try (ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(workers, specPaths.size())))) {
+            for (Path specPath : specPaths) {
+                NavigatorRequest request = settings.withSpec(specPath, outputDirs.get(specPath));
+                futures.add(pool.submit(() -> navigatorService.execute(request)));
+            }
+        }
+
+        List<NavigatorResult> results = new ArrayList<>(specPaths.size());
+        Map<Path, String> failures = new LinkedHashMap<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                log.error("Alignment failed for spec {}", specPaths.get(i).toAbsolutePath(), e.getCause());
+                failures.put(specPaths.get(i), String.valueOf(e.getCause().getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while aligning portfolio", e);
+            }
+        }
+        return new Batch(results, failures);
+    }
+
+    /**
+     * One subdirectory per spec named after its file, with a numeric suffix when two specs share a name.
+     */
+    static Map<Path, Path> outputDirs(List<Path> specPaths, Path outputDir) {
+        Map<Path, Path> dirs = new LinkedHashMap<>();
+        Set<String> used = new HashSet<>();
+        for (Path specPath : specPaths) {
+            String fileName = specPath.getFileName().toString();
+            int dot = fileName.lastIndexOf('.');
+            String base = NameUtils.slug(dot > 0 ? fileName.substring(0, dot) : fileName);
+            String name = base;
+            for (int n = 2; !used.add(name); n++) {
+                name = base + "-" + n;
+            }
+            dirs.put(specPath, outputDir.resolve(name));
+        }
+        return dirs;
+    }
+
+    record Batch(List<NavigatorResult> results, Map<Path, String> failures) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.vbot.navigator.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * View of another {@link OutputSink} with every path under a fixed prefix.
+ */
+final class PrefixedSink implements OutputSink {
+
+    private final OutputSink target;
+    private final String prefix;
+
+    PrefixedSink(OutputSink target, String prefix) {
+        this.target = target;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public OutputStream open(String path) throws IOException {
+        return target.open(prefix + path);
+    }
+
+    @Override
+    public boolean write(String path, byte[] content) throws IOException {
+        return target.write(prefix + path, content);
+    }
+
+    @Override
+    public void createDirectory(String path) throws IOException {
+        target.createDirectory(prefix + path);
+    }
+
+    @Override
+    public Optional<Path> directory() {
+        return target.directory().map(dir -> dir.resolve(prefix));
+    }
+
+    @Override
+    public String describe(String path) {
+        return target.describe(prefix + path);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,259 @@
+package com.vbot.navigator.service;
+
+import com.vbot.navigator.model.OperationAlignment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for one navigator run: a {@value #STAGE_TIMER} timer per pipeline stage (tagged
+ * {@code stage}) and counters for operations, exact keyword hits, Jaro-Winkler comparisons, domains
+ * scored and fallback assignments, plus the business-area recall when it is measured. Each run
+ * records into its own registry, which backs {@code run-metrics.json}, and also into Micrometer's
+ * global registry, so a long-running process (watch or serve) accumulates totals there for any
+ * registry added to it. Counters are safe to update from several threads.
+ */
+public final class RunMetrics {
+
+    public static final String STAGE_TIMER = "navigator.stage";
+    public static final String PARSE = "parse";
+    public static final String DIFF = "diff";
+    public static final String ALIGN = "align";
+    public static final String GROUP = "group";
+    public static final String WRITE = "write";
+    public static final String SCAFFOLD = "scaffold";
+
+    private static final String OPERATIONS = "navigator.operations";
+    private static final String KEYWORD_HITS = "navigator.keyword.hits";
+    private static final String FUZZY_COMPARISONS = "navigator.fuzzy.comparisons";
+    private static final String FALLBACKS = "navigator.fallback.assignments";
+    private static final String DOMAINS_SCORED = "navigator.domains.scored";
+    private static final String AREAS_REQUIRED = "navigator.areas.required";
+    private static final RunMetrics DISABLED = new RunMetrics(null);
+
+    private final SimpleMeterRegistry registry;
+    private final Map<String, Timer> stages = new LinkedHashMap<>();
+    private final Counters counters;
+    private final Counters globalCounters;
+    private final Map<Integer, Counter> areasRequired = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+
+    private RunMetrics(SimpleMeterRegistry registry) {
+        this.registry = registry;
+        this.counters = registry == null ? null : new Counters(registry);
+        this.globalCounters = registry == null ? null : new Counters(Metrics.globalRegistry);
+    }
+
+    /**
+     * Meters for a new run.
+     */
+    public static RunMetrics create() {
+        return new RunMetrics(new SimpleMeterRegistry());
+    }
+
+    /**
+     * Meters that record nothing, for callers that do not report metrics.
+     */
+    public static RunMetrics disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return registry != null;
+    }
+
+    /**
+     * Records the time since {@code startNanos} (a {@link System#nanoTime()} reading) for the stage.
+     * Stages are recorded by the thread running the pipeline.
+     */
+    public void recordStage(String stage, long startNanos) {
+        recordStage(stage, startNanos, System.nanoTime());
+    }
+
+    /**
+     * Records a stage that ended at {@code endNanos}, for stages that overlap and finish on another
+     * thread.
+     */
+    public void recordStage(String stage, long startNanos, long endNanos) {
+        if (!isEnabled()) {
+            return;
+        }
+        long nanos = endNanos - startNanos;
+        stages.computeIfAbsent(stage, name -> stageTimer(registry, name)).record(nanos, TimeUnit.NANOSECONDS);
+        stageTimer(Metrics.globalRegistry, stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts the matching work for one scored operation.
+     */
+    void recordMatch(int exactKeywordHits, int comparisons, int scoredDomains) {
+        if (isEnabled()) {
+            counters.recordMatch(exactKeywordHits, comparisons, scoredDomains);
+            globalCounters.recordMatch(exactKeywordHits, comparisons, scoredDomains);
+        }
+    }
+
+    /**
+     * Records how many of an operation's best-ranked business areas must be kept for the domain that
+     * exhaustive scoring picks to be scored at all: 0 when it is scored regardless (no area, or the
+     * fallback domain).
+     */
+    void recordAreasRequired(int areas) {
+        if (isEnabled()) {
+            areasRequired.computeIfAbsent(areas, count -> areaCounter(registry, count)).increment();
+            areaCounter(Metrics.globalRegistry, areas).increment();
+        }
+    }
+
+    void recordAlignments(List<OperationAlignment> alignments) {
+        int fallbackCount = 0;
+        for (OperationAlignment alignment : alignments) {
+            if (isFallback(alignment)) {
+                fallbackCount++;
+            }
+        }
+        if (isEnabled()) {
+            counters.recordAlignments(alignments.size(), fallbackCount);
+            globalCounters.recordAlignments(alignments.size(), fallbackCount);
+        }
+    }
+
+    void recordAlignment(OperationAlignment alignment) {
+        if (isEnabled()) {
+            int fallbackCount = isFallback(alignment) ? 1 : 0;
+            counters.recordAlignments(1, fallbackCount);
+            globalCounters.recordAlignments(1, fallbackCount);
+        }
+    }
+
+    private static boolean isFallback(OperationAlignment alignment) {
+        return "UNMAPPED".equalsIgnoreCase(alignment.domain().getCode());
+    }
+
+    /**
+     * Stage durations in milliseconds, in the order the stages were first recorded.
+     */
+    public Map<String, Double> stageMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        for (Map.Entry<String, Timer> entry : stages.entrySet()) {
+            millis.put(entry.getKey(), entry.getValue().totalTime(TimeUnit.MILLISECONDS));
+        }
+        return millis;
+    }
+
+    public double stageMillis(String stage) {
+        Timer timer = stages.get(stage);
+        return timer == null ? 0 : timer.totalTime(TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Milliseconds since these meters were created.
+     */
+    public double elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+
+    public long operations() {
+        return isEnabled() ? (long) counters.operations.count() : 0;
+    }
+
+    public long keywordHits() {
+        return isEnabled() ? (long) counters.keywordHits.count() : 0;
+    }
+
+    public long fuzzyComparisons() {
+        return isEnabled() ? (long) counters.fuzzyComparisons.count() : 0;
+    }
+
+    public long fallbacks() {
+        return isEnabled() ? (long) counters.fallbacks.count() : 0;
+    }
+
+    public long domainsScored() {
+        return isEnabled() ? (long) counters.domainsScored.count() : 0;
+    }
+
+    /**
+     * The number of operations whose business-area recall was measured.
+     */
+    public long areaRecallOperations() {
+        long total = 0;
+        for (Counter counter : areasRequired.values()) {
+            total += (long) counter.count();
+        }
+        return total;
+    }
+
+    /**
+     * Recall of coarse-to-fine alignment against exhaustive scoring, by the number of business areas
+     * kept: the share of measured operations that keep the same best domain. Runs up to the number of
+     * areas at which every measured operation does; empty when recall was not measured.
+     */
+    public SortedMap<Integer, Double> areaRecall() {
+        SortedMap<Integer, Double> recall = new TreeMap<>();
+        long total = areaRecallOperations();
+        if (total == 0) {
+            return recall;
+        }
+        int maxAreas = 1;
+        for (int areas : areasRequired.keySet()) {
+            maxAreas = Math.max(maxAreas, areas);
+        }
+        long covered = areaCount(0);
+        for (int areas = 1; areas <= maxAreas; areas++) {
+            covered += areaCount(areas);
+            recall.put(areas, (double) covered / total);
+        }
+        return recall;
+    }
+
+    private long areaCount(int areas) {
+        Counter counter = areasRequired.get(areas);
+        return counter == null ? 0 : (long) counter.count();
+    }
+
+    private static Counter areaCounter(MeterRegistry registry, int areas) {
+        return registry.counter(AREAS_REQUIRED, "areas", String.valueOf(areas));
+    }
+
+    private static Timer stageTimer(MeterRegistry registry, String stage) {
+        return Timer.builder(STAGE_TIMER).tag("stage", stage).register(registry);
+    }
+
+    private static final class Counters {
+        private final Counter operations;
+        private final Counter keywordHits;
+        private final Counter fuzzyComparisons;
+        private final Counter fallbacks;
+        private final Counter domainsScored;
+
+        private Counters(MeterRegistry registry) {
+            this.operations = registry.counter(OPERATIONS);
+            this.keywordHits = registry.counter(KEYWORD_HITS);
+            this.fuzzyComparisons = registry.counter(FUZZY_COMPARISONS);
+            this.fallbacks = registry.counter(FALLBACKS);
+            this.domainsScored = registry.counter(DOMAINS_SCORED);
+        }
+
+        private void recordMatch(int exactKeywordHits, int comparisons, int scoredDomains) {
+            keywordHits.increment(exactKeywordHits);
+            fuzzyComparisons.increment(comparisons);
+            domainsScored.increment(scoredDomains);
+        }
+
+        private void recordAlignments(int operationCount, int fallbackCount) {
+            operations.increment(operationCount);
+            fallbacks.increment(fallbackCount);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.vbot.navigator.service;
+
+import com.vbot.navigator.model.ApiOperation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The operations of two versions of a spec, matched by HTTP method and path and compared by
+ * {@link ApiOperation#fingerprint()}. Lists keep the order of the spec they come from: the baseline
+ * for {@code removed}, the current spec for the others.
+ */
+record SpecDiff(List<ApiOperation> added,
+                List<ApiOperation> removed,
+                List<Change> changed,
+                List<ApiOperation> unchanged) {
+
+    record Change(ApiOperation baseline, ApiOperation current) {
+    }
+
+    static SpecDiff compare(List<ApiOperation> baseline, List<ApiOperation> current) {
+        Map<String, ApiOperation> previous = new LinkedHashMap<>();
+        for (ApiOperation operation : baseline) {
+            previous.putIfAbsent(key(operation), operation);
+        }
+        List<ApiOperation> added = new ArrayList<>();
+        List<Change> changed = new ArrayList<>();
+        List<ApiOperation> unchanged = new ArrayList<>();
+        for (ApiOperation operation : current) {
+            ApiOperation before = previous.remove(key(operation));
+            if (before == null) {
+                added.add(operation);
+            } else if (before.fingerprint().equals(operation.fingerprint())) {
+                unchanged.add(operation);
+            } else {
+                changed.add(new Change(before, operation));
+            }
+        }
+        return new SpecDiff(added, new ArrayList<>(previous.values()), changed, unchanged);
+    }
+
+    private static String key(ApiOperation operation) {
+        return key(operation.httpMethod(), operation.path());
+    }
+
+    /**
+     * The key operations are matched by: the upper-case method and the path.
+     */
+    static String key(String httpMethod, String path) {
+        return String.valueOf(httpMethod).toUpperCase() + " " + path;
+    }
+}
@@ -0,0 +1,183 @@
+package com.vbot.navigator.service;
+
+import com.vbot.navigator.config.BianDomainCatalogue;
+import com.vbot.navigator.model.NavigatorRequest;
+import com.vbot.navigator.model.NavigatorResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the process running and re-aligns specs as they are saved. The spec files and the catalogue
+ * file are watched through their parent directories; a burst of events is collected until the files
+ * have been quiet for the debounce interval, then only the specs that changed are re-run. A catalogue
+ * change reloads the catalogue and re-runs every spec. The set of specs is fixed when watching starts.
+ */
+@Service
+public class SpecWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(SpecWatcher.class);
+
+    private final NavigatorService navigatorService;
+    private final PortfolioService portfolioService;
+    private final GenerationPlanWriter planWriter;
+    private final BianDomainCatalogue catalogue;
+
+    public SpecWatcher(NavigatorService navigatorService,
+                       PortfolioService portfolioService,
+                       GenerationPlanWriter planWriter,
+                       BianDomainCatalogue catalogue) {
+        this.navigatorService = navigatorService;
+        this.portfolioService = portfolioService;
+        this.planWriter = planWriter;
+        this.catalogue = catalogue;
+    }
+
+    /**
+     * Aligns every spec once, then re-aligns on change until the thread is interrupted. With a single
+     * spec the output goes straight to the output directory; with several, each spec gets its own
+     * subdirectory and the portfolio summary is refreshed after every cycle.
+     */
+    public void watch(List<Path> specPaths, NavigatorRequest settings, int workers, Duration debounce) {
+        boolean portfolio = specPaths.size() > 1;
+        Map<Path, Path> outputDirs = portfolio
+                ? PortfolioService.outputDirs(specPaths, settings.outputDir())
+                : Map.of(specPaths.get(0), settings.outputDir());
+        Map<Path, Path> specs = new LinkedHashMap<>();
+        outputDirs.forEach((spec, dir) -> specs.put(spec.toAbsolutePath().normalize(), dir));
+        Optional<Path> catalogueFile = catalogue.sourceFile();
+
+        // Per spec, the per-domain counts of its last successful run; all the portfolio summary needs.
+        Map<Path, NavigatorResult> latest = new LinkedHashMap<>();
+        Map<Path, String> failures = new LinkedHashMap<>();
+        runCycle("initial", specs, specs.keySet(), settings, workers, portfolio, latest, failures, null);
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Map<WatchKey, Path> directories = new HashMap<>();
+            Set<Path> watchedDirs = new LinkedHashSet<>();
+            specs.keySet().forEach(spec -> watchedDirs.add(spec.getParent()));
+            catalogueFile.ifPresent(file -> watchedDirs.add(file.getParent()));
+            for (Path dir : watchedDirs) {
+                directories.put(dir.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY), dir);
+            }
+            if (catalogueFile.isPresent()) {
+                log.info("Watching {} spec(s) and catalogue {} (debounce {} ms). Press Ctrl+C to stop.",
+                        specs.size(), catalogueFile.get(), debounce.toMillis());
+            } else {
+                log.info("Watching {} spec(s) (debounce {} ms). The catalogue is not a file on disk, so catalogue changes are not watched; pass --catalogue= to watch one.",
+                        specs.size(), debounce.toMillis());
+            }
+
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                long firstEvent = System.nanoTime();
+                Set<Path> changed = new LinkedHashSet<>();
+                // Editors often save through several events (truncate, write, rename); wait for quiet.
+                while (key != null) {
+                    collect(key, directories, changed);
+                    key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS);
+                }
+
+                if (catalogueFile.isPresent() && changed.contains(catalogueFile.get())) {
+                    if (catalogue.reload()) {
+                        runCycle("catalogue change", specs, specs.keySet(), settings, workers, portfolio, latest, failures, firstEvent);
+                    }
+                    continue;
+                }
+                changed.retainAll(specs.keySet());
+                if (!changed.isEmpty()) {
+                    runCycle("spec change", specs, changed, settings, workers, portfolio, latest, failures, firstEvent);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Watch mode stopped.");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to watch spec files", e);
+        }
+    }
+
+    private void collect(WatchKey key, Map<WatchKey, Path> directories, Set<Path> changed) {
+        Path dir = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                log.warn("File watcher overflowed in {}; some changes may have been missed.", dir);
+                continue;
+            }
+            changed.add(dir.resolve((Path) event.context()).normalize());
+        }
+        key.reset();
+    }
+
+    private void runCycle(String reason,
+                          Map<Path, Path> specs,
+                          Set<Path> toRun,
+                          NavigatorRequest settings,
+                          int workers,
+                          boolean portfolio,
+                          Map<Path, NavigatorResult> latest,
+                          Map<Path, String> failures,
+                          Long firstEvent) {
+        // firstEvent is the System.nanoTime() of the first file event in the burst, or null for the initial run.
+        long started = System.nanoTime();
+        Map<Path, Path> batchDirs = new LinkedHashMap<>();
+        for (Path spec : toRun) {
+            batchDirs.put(spec, specs.get(spec));
+        }
+
+        if (!portfolio) {
+            Path spec = toRun.iterator().next();
+            try {
+                navigatorService.execute(settings.withSpec(spec, batchDirs.get(spec)));
+            } catch (RuntimeException e) {
+                log.error("Alignment failed for spec {}", spec, e);
+            }
+        } else {
+            PortfolioService.Batch batch = portfolioService.run(batchDirs, settings, workers);
+            for (NavigatorResult result : batch.results()) {
+                latest.put(result.specPath(), result);
+                failures.remove(result.specPath());
+            }
+            batch.failures().forEach((spec, message) -> {
+                latest.remove(spec);
+                failures.put(spec, message);
+            });
+            List<NavigatorResult> ordered = new ArrayList<>();
+            for (Path spec : specs.keySet()) {
+                if (latest.containsKey(spec)) {
+                    ordered.add(latest.get(spec));
+                }
+            }
+            planWriter.writePortfolio(settings.outputDir(), ordered, failures);
+        }
+
+        long finished = System.nanoTime();
+        if (firstEvent == null) {
+            log.info("Watch cycle ({}): aligned {} spec(s) in {} ms", reason, toRun.size(), (finished - started) / 1_000_000);
+        } else {
+            log.info("Watch cycle ({}): re-aligned {} spec(s) in {} ms, {} ms after the first change event",
+                    reason, toRun.size(), (finished - started) / 1_000_000, (finished - firstEvent) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.vbot.navigator.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning the write stage of one run: the alignment reports, not the scaffolds.
+ */
+@Name("com.vbot.navigator.Write")
+@Label("Write Reports")
+@Category({"Navigator"})
+@Description("Writing the alignment reports of one spec")
+final class WriteEvent extends Event {
+
+    @Label("Spec")
+    String spec;
+
+    @Label("Output")
+    String output;
+
+    @Label("Domains")
+    int domains;
+}
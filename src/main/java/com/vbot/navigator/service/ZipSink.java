@@ -0,0 +1,107 @@
+package com.vbot.navigator.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * {@link OutputSink} that collects every output as an entry of one zip archive. Entries are buffered
+ * in memory and written on {@link #close()} in path order with a fixed timestamp, so identical runs
+ * produce byte-identical archives whatever order the concurrent writers finish in.
+ */
+final class ZipSink implements OutputSink {
+
+    /** The earliest time a zip entry can carry; used for every entry instead of the write time. */
+    private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 1, 1, 0, 0);
+
+    private static final byte[] DIRECTORY = new byte[0];
+
+    private final Path archive;
+    private final Map<String, byte[]> entries = new ConcurrentSkipListMap<>();
+    private boolean closed;
+
+    ZipSink(Path archive) throws IOException {
+        this.archive = archive;
+        Path parent = archive.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+    }
+
+    @Override
+    public OutputStream open(String path) throws IOException {
+        reserve(path);
+        return new ByteArrayOutputStream() {
+            private boolean closed;
+
+            @Override
+            public void close() {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                entries.put(path, toByteArray());
+            }
+        };
+    }
+
+    @Override
+    public boolean write(String path, byte[] content) throws IOException {
+        reserve(path);
+        entries.put(path, content.clone());
+        return true;
+    }
+
+    @Override
+    public void createDirectory(String path) throws IOException {
+        reserve(path.endsWith("/") ? path : path + "/");
+    }
+
+    /**
+     * Claims the entry name up front, so a second write to the same path fails as it would on a
+     * streamed archive. Directory entries and not yet closed streams hold an empty entry.
+     */
+    private void reserve(String path) throws ZipException {
+        if (entries.putIfAbsent(path, DIRECTORY) != null) {
+            throw new ZipException("duplicate entry: " + path);
+        }
+    }
+
+    @Override
+    public Optional<Path> directory() {
+        return Optional.empty();
+    }
+
+    @Override
+    public String describe(String path) {
+        return archive.toAbsolutePath() + "!/" + path;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive), StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, byte[]> output : entries.entrySet()) {
+                ZipEntry entry = new ZipEntry(output.getKey());
+                entry.setTimeLocal(ENTRY_TIME);
+                zip.putNextEntry(entry);
+                zip.write(output.getValue());
+                zip.closeEntry();
+            }
+        }
+        entries.clear();
+    }
+}
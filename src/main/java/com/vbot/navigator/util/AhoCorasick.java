@@ -0,0 +1,234 @@
+package com.vbot.navigator.util;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Multi-pattern substring matcher. Patterns are compiled into a deterministic automaton over the
+ * characters that occur in them, so {@link #scan(CharSequence)} reports every pattern contained in
+ * the text in a single left-to-right pass. Instances are immutable and safe to share between threads.
+ */
+public final class AhoCorasick {
+
+    private static final int ROOT = 0;
+
+    private final String[] patterns;
+    private final int[] classOf;
+    private final int classCount;
+    private final int[] transitions;
+    private final int[] output;
+    private final int[] outputLink;
+    private final int emptyPattern;
+
+    private AhoCorasick(String[] patterns,
+                        int[] classOf,
+                        int classCount,
+                        int[] transitions,
+                        int[] output,
+                        int[] outputLink,
+                        int emptyPattern) {
+        this.patterns = patterns;
+        this.classOf = classOf;
+        this.classCount = classCount;
+        this.transitions = transitions;
+        this.output = output;
+        this.outputLink = outputLink;
+        this.emptyPattern = emptyPattern;
+    }
+
+    /**
+     * Compiles the given patterns. Pattern ids are their positions in the list. Patterns must be
+     * distinct; like {@link String#contains(CharSequence)}, an empty pattern matches every text.
+     */
+    public static AhoCorasick compile(List<String> patterns) {
+        String[] source = patterns.toArray(new String[0]);
+
+        int[] classOf = new int[Character.MAX_VALUE + 1];
+        StringBuilder alphabet = new StringBuilder();
+        int trieSize = 1;
+        for (String pattern : source) {
+            trieSize += pattern.length();
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (classOf[c] == 0) {
+                    alphabet.append(c);
+                    classOf[c] = alphabet.length();
+                }
+            }
+        }
+
+        int classes = alphabet.length() + 1;
+        int[] transitions = new int[trieSize * classes];
+        Arrays.fill(transitions, -1);
+        int[] output = new int[trieSize];
+        Arrays.fill(output, -1);
+        int states = 1;
+        int emptyPattern = -1;
+
+        for (int id = 0; id < source.length; id++) {
+            String pattern = source[id];
+            if (pattern.isEmpty()) {
+                if (emptyPattern >= 0) {
+                    throw new IllegalArgumentException("Duplicate empty pattern");
+                }
+                emptyPattern = id;
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                int slot = state * classes + classOf[pattern.charAt(i)];
+                if (transitions[slot] < 0) {
+                    transitions[slot] = states++;
+                }
+                state = transitions[slot];
+            }
+            if (output[state] >= 0) {
+                throw new IllegalArgumentException("Duplicate pattern: " + pattern);
+            }
+            output[state] = id;
+        }
+
+        // Breadth-first pass: resolve failure links into a complete transition table and chain each
+        // state to the nearest shorter suffix that ends a pattern.
+        int[] failure = new int[states];
+        int[] outputLink = new int[states];
+        Arrays.fill(outputLink, -1);
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < classes; c++) {
+            int slot = ROOT * classes + c;
+            if (transitions[slot] < 0) {
+                transitions[slot] = ROOT;
+            } else {
+                failure[transitions[slot]] = ROOT;
+                queue.add(transitions[slot]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int fail = failure[state];
+            outputLink[state] = output[fail] >= 0 ? fail : outputLink[fail];
+            for (int c = 0; c < classes; c++) {
+                int slot = state * classes + c;
+                int next = transitions[slot];
+                if (next < 0) {
+                    transitions[slot] = transitions[fail * classes + c];
+                } else {
+                    failure[next] = transitions[fail * classes + c];
+                    queue.add(next);
+                }
+            }
+        }
+
+        return new AhoCorasick(
+                source,
+                classOf,
+                classes,
+                Arrays.copyOf(transitions, states * classes),
+                Arrays.copyOf(output, states),
+                outputLink,
+                emptyPattern);
+    }
+
+    /**
+     * Writes the compiled automaton so {@link #readFrom(ByteBuffer)} can restore it without
+     * recompiling.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        BinaryCodec.writeStrings(out, Arrays.asList(patterns));
+        out.writeInt(classCount);
+        out.writeInt(emptyPattern);
+        // classOf spans every char but almost all map to class 0, so only the others are written.
+        int mapped = 0;
+        for (int cls : classOf) {
+            if (cls != 0) {
+                mapped++;
+            }
+        }
+        out.writeInt(mapped);
+        for (int c = 0; c < classOf.length; c++) {
+            if (classOf[c] != 0) {
+                out.writeChar(c);
+                out.writeInt(classOf[c]);
+            }
+        }
+        BinaryCodec.writeInts(out, transitions);
+        BinaryCodec.writeInts(out, output);
+        BinaryCodec.writeInts(out, outputLink);
+    }
+
+    public static AhoCorasick readFrom(ByteBuffer in) {
+        String[] patterns = BinaryCodec.readStrings(in).toArray(new String[0]);
+        int classCount = in.getInt();
+        int emptyPattern = in.getInt();
+        int[] classOf = new int[Character.MAX_VALUE + 1];
+        for (int mapped = in.getInt(); mapped > 0; mapped--) {
+            classOf[in.getChar()] = in.getInt();
+        }
+        int[] transitions = BinaryCodec.readInts(in);
+        int[] output = BinaryCodec.readInts(in);
+        int[] outputLink = BinaryCodec.readInts(in);
+        return new AhoCorasick(patterns, classOf, classCount, transitions, output, outputLink, emptyPattern);
+    }
+
+    public int patternCount() {
+        return patterns.length;
+    }
+
+    public String pattern(int id) {
+        return patterns[id];
+    }
+
+    /**
+     * Returns the ids of every pattern that occurs at least once in the text.
+     */
+    public BitSet scan(CharSequence text) {
+        BitSet hits = emptyHits();
+        step(ROOT, text, hits);
+        return hits;
+    }
+
+    /**
+     * Like {@link #scan(CharSequence)} on the decoded text, without decoding it.
+     */
+    public BitSet scan(TokenDictionary dictionary, int[] encoded) {
+        BitSet hits = emptyHits();
+        int state = ROOT;
+        for (int i = 0; i < encoded.length; i++) {
+            if (TokenDictionary.spaceBefore(encoded, i)) {
+                state = step(state, ' ', hits);
+            }
+            state = step(state, dictionary.token(encoded[i]), hits);
+        }
+        return hits;
+    }
+
+    private BitSet emptyHits() {
+        BitSet hits = new BitSet(patterns.length);
+        if (emptyPattern >= 0) {
+            hits.set(emptyPattern);
+        }
+        return hits;
+    }
+
+    private int step(int state, CharSequence text, BitSet hits) {
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, text.charAt(i), hits);
+        }
+        return state;
+    }
+
+    private int step(int state, char c, BitSet hits) {
+        state = transitions[state * classCount + classOf[c]];
+        // Once a pattern has been reported, every shorter suffix pattern below it has been too.
+        for (int s = output[state] >= 0 ? state : outputLink[state]; s >= 0 && !hits.get(output[s]); s = outputLink[s]) {
+            hits.set(output[s]);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,62 @@
+package com.vbot.navigator.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 over a sequence of string fields. Each field is length-prefixed and {@code null} is
+ * distinguished from the empty string, so field boundaries can never collide.
+ */
+public final class ContentHash {
+
+    private final MessageDigest digest;
+
+    private ContentHash() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static ContentHash sha256() {
+        return new ContentHash();
+    }
+
+    public ContentHash add(String value) {
+        if (value == null) {
+            addLength(-1);
+            return this;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        addLength(bytes.length);
+        digest.update(bytes);
+        return this;
+    }
+
+    public ContentHash add(Iterable<String> values) {
+        for (String value : values) {
+            add(value);
+        }
+        return add((String) null);
+    }
+
+    public ContentHash add(byte[] bytes) {
+        addLength(bytes.length);
+        digest.update(bytes);
+        return this;
+    }
+
+    public String hex() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void addLength(int length) {
+        digest.update((byte) (length >>> 24));
+        digest.update((byte) (length >>> 16));
+        digest.update((byte) (length >>> 8));
+        digest.update((byte) length);
+    }
+}
@@ -0,0 +1,80 @@
+package com.vbot.navigator.util;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Per-run memo of {@link NameUtils} derivations. A name that is derived several times (a domain name
+ * turned into a slug, a class name and a package, or an operation id seen by several services) is
+ * only normalized once. Instances are safe to share between threads.
+ * <p>
+ * {@link #scope()} hands out identifiers that are unique within one namespace, such as the methods of
+ * one controller: a name already taken gets a numeric suffix ({@code getAccount}, {@code getAccount2}).
+ */
+public final class NameRegistry {
+
+    private static final String NULL_KEY = "\u0000null";
+
+    private final Map<String, String> slugs = new ConcurrentHashMap<>();
+    private final Map<String, String> classNames = new ConcurrentHashMap<>();
+    private final Map<String, String> methodNames = new ConcurrentHashMap<>();
+    private final Map<String, String> packageNames = new ConcurrentHashMap<>();
+
+    public String slug(String name) {
+        return memo(slugs, name, NameUtils::slug);
+    }
+
+    public String className(String name) {
+        return memo(classNames, name, NameUtils::className);
+    }
+
+    public String methodName(String rawName) {
+        return memo(methodNames, rawName, NameUtils::methodName);
+    }
+
+    public String packageName(String base, String name) {
+        return packageNames.computeIfAbsent(base + '\u0000' + (name == null ? NULL_KEY : name),
+                key -> NameUtils.packageName(base, name));
+    }
+
+    /**
+     * A fresh namespace for identifiers that must not collide with each other.
+     */
+    public Scope scope() {
+        return new Scope();
+    }
+
+    private static String memo(Map<String, String> cache, String name, Function<String, String> derive) {
+        return cache.computeIfAbsent(name == null ? NULL_KEY : name, key -> derive.apply(name));
+    }
+
+    /**
+     * Identifiers already handed out in one namespace. Not thread-safe; use one scope per task.
+     */
+    public static final class Scope {
+
+        private final Set<String> taken = new HashSet<>();
+
+        private Scope() {
+        }
+
+        /**
+         * Returns {@code candidate}, or the first of {@code candidate2}, {@code candidate3}, ... not yet
+         * taken in this scope, and marks it taken.
+         */
+        public String claim(String candidate) {
+            if (taken.add(candidate)) {
+                return candidate;
+            }
+            for (int n = 2; ; n++) {
+                String suffixed = candidate + n;
+                if (taken.add(suffixed)) {
+                    return suffixed;
+                }
+            }
+        }
+    }
+}
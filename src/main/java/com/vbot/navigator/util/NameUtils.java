@@ -2,6 +2,13 @@ package com.vbot.navigator.util;
 
 import java.text.Normalizer;
 
+/**
+ * Derives slugs and Java identifiers from domain names and operation ids. Every derivation starts from
+ * the same normalized form: accents stripped, anything outside ASCII dropped, the ends trimmed and
+ * each run of whitespace turned into a single '-'. Pure-ASCII input skips Unicode normalization, and
+ * all derivations are single passes over a char buffer. Case mapping is ASCII-only, so results do not
+ * depend on the default locale.
+ */
 public final class NameUtils {
 
     private NameUtils() {
@@ -16,51 +23,142 @@ public final class NameUtils {
 
     public static String slug(String name) {
         String normalized = normalize(name);
-        return normalized.toLowerCase().replace('_', '-').replaceAll("-{2,}", "-");
+        char[] out = new char[normalized.length()];
+        int length = 0;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = toLowerAscii(normalized.charAt(i));
+            if (c == '_') {
+                c = '-';
+            }
+            if (c == '-' && length > 0 && out[length - 1] == '-') {
+                continue;
+            }
+            out[length++] = c;
+        }
+        return new String(out, 0, length);
     }
 
     public static String packageName(String base, String domainName) {
-        String normalized = normalize(domainName).toLowerCase().replace('-', '.');
-        String sanitized = normalized.replaceAll("[^a-z0-9.]", ".");
-        return base + "." + sanitized.replaceAll("\\.{2,}", ".");
-    }
-
-    public static String className(String name) {
-        String[] parts = normalize(name).replace('-', ' ').split("\\s+");
-        StringBuilder builder = new StringBuilder();
-        for (String part : parts) {
-            if (part.isBlank()) continue;
-            builder.append(Character.toUpperCase(part.charAt(0)));
-            if (part.length() > 1) {
-                builder.append(part.substring(1));
+        String normalized = normalize(domainName);
+        StringBuilder builder = new StringBuilder(base.length() + 1 + normalized.length());
+        builder.append(base).append('.');
+        int start = builder.length();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = toLowerAscii(normalized.charAt(i));
+            if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9'))) {
+                c = '.';
+            }
+            if (c == '.' && builder.length() > start && builder.charAt(builder.length() - 1) == '.') {
+                continue;
             }
+            builder.append(c);
         }
         return builder.toString();
     }
 
+    public static String className(String name) {
+        return camelCase(normalize(name), true, false, "");
+    }
+
     public static String methodName(String rawName) {
-        String normalized = normalize(rawName).toLowerCase().replace('-', ' ');
-        String[] parts = normalized.split("\\s+");
-        StringBuilder builder = new StringBuilder();
-        boolean first = true;
-        for (String part : parts) {
-            if (part.isBlank()) continue;
-            if (first) {
-                builder.append(part);
-                first = false;
-            } else {
-                builder.append(Character.toUpperCase(part.charAt(0)))
-                        .append(part.substring(1));
+        return camelCase(normalize(rawName), false, true, "handle");
+    }
+
+    /**
+     * Joins the '-'- and space-separated words of a normalized name, capitalizing the first letter of
+     * each word (except the first word unless {@code capitalizeFirst}). Words made only of whitespace
+     * are skipped.
+     */
+    private static String camelCase(String normalized, boolean capitalizeFirst, boolean lowerCase, String fallback) {
+        StringBuilder builder = new StringBuilder(normalized.length());
+        int i = 0;
+        while (i < normalized.length()) {
+            while (i < normalized.length() && isSeparator(normalized.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            boolean blank = true;
+            while (i < normalized.length() && !isSeparator(normalized.charAt(i))) {
+                blank &= Character.isWhitespace(normalized.charAt(i));
+                i++;
+            }
+            if (start == i || blank) {
+                continue;
+            }
+            boolean capitalize = capitalizeFirst || !builder.isEmpty();
+            for (int j = start; j < i; j++) {
+                char c = normalized.charAt(j);
+                if (lowerCase) {
+                    c = toLowerAscii(c);
+                }
+                builder.append(j == start && capitalize ? toUpperAscii(c) : c);
             }
         }
-        return builder.isEmpty() ? "handle" : builder.toString();
+        return builder.isEmpty() ? fallback : builder.toString();
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '-' || isRegexWhitespace(c);
     }
 
     private static String normalize(String value) {
         if (value == null || value.isBlank()) {
             return "unmapped";
         }
-        String normalized = Normalizer.normalize(value, Normalizer.Form.NFD);
-        return normalized.replaceAll("[^\\p{ASCII}a-zA-Z0-9\\s-]", "").trim().replaceAll("\\s+", "-");
+        String source = isAscii(value) ? value : Normalizer.normalize(value, Normalizer.Form.NFD);
+
+        // Keep ASCII only, then trim the ends and collapse whitespace runs, in place in one buffer.
+        char[] out = new char[source.length()];
+        int end = 0;
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c < 0x80) {
+                out[end++] = c;
+            }
+        }
+        int start = 0;
+        while (start < end && out[start] <= ' ') {
+            start++;
+        }
+        while (end > start && out[end - 1] <= ' ') {
+            end--;
+        }
+        int length = 0;
+        boolean inWhitespace = false;
+        for (int i = start; i < end; i++) {
+            char c = out[i];
+            if (!isRegexWhitespace(c)) {
+                out[length++] = c;
+                inWhitespace = false;
+            } else if (!inWhitespace) {
+                out[length++] = '-';
+                inWhitespace = true;
+            }
+        }
+        return new String(out, 0, length);
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The characters matched by {@code \s} in a regex without UNICODE_CHARACTER_CLASS.
+     */
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static char toUpperAscii(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
     }
 }
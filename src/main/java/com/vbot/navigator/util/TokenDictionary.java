@@ -0,0 +1,157 @@
+package com.vbot.navigator.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary that encodes text as {@code int[]} token ids. Text is split into maximal runs of
+ * letters and digits (words) and runs of anything else (separators). A word is stored as its id; a
+ * separator as the complement {@code ~id}, so it is negative. The single space between two words is
+ * not stored at all, which makes ordinary prose one id per word. {@link #decode(int[])} restores the
+ * text exactly.
+ * <p>
+ * The dictionary also interns whole strings such as paths and tags, so that every operation sharing
+ * a value holds the same instance. Ids are never reused and the dictionary only grows, so each run
+ * (and each server request) encodes into its own instance. Instances are safe to share between threads.
+ */
+public final class TokenDictionary {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final Map<String, String> interned = new ConcurrentHashMap<>();
+    private final Map<String, int[]> phrases = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private volatile String[] byId = new String[64];
+    private volatile int size;
+
+    /**
+     * The number of distinct words and separators seen so far.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the canonical instance of an equal string.
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = interned.putIfAbsent(value, value);
+        return existing == null ? value : existing;
+    }
+
+    /**
+     * Encodes the text as described above.
+     */
+    public int[] encode(String text) {
+        if (text == null || text.isEmpty()) {
+            return EMPTY;
+        }
+        int[] out = new int[8];
+        int length = 0;
+        int start = 0;
+        boolean previousWord = false;
+        while (start < text.length()) {
+            boolean word = isWordChar(text.charAt(start));
+            int end = start + 1;
+            while (end < text.length() && isWordChar(text.charAt(end)) == word) {
+                end++;
+            }
+            boolean impliedSpace = !word
+                    && previousWord
+                    && end == start + 1
+                    && text.charAt(start) == ' '
+                    && end < text.length();
+            if (!impliedSpace) {
+                if (length == out.length) {
+                    out = Arrays.copyOf(out, length * 2);
+                }
+                int id = id(text.substring(start, end));
+                out[length++] = word ? id : ~id;
+            }
+            previousWord = word;
+            start = end;
+        }
+        return length == out.length ? out : Arrays.copyOf(out, length);
+    }
+
+    /**
+     * Like {@link #encode(String)} for short text that recurs across operations, such as a tag: equal
+     * text is encoded once and every caller gets the same array, which must not be modified.
+     */
+    public int[] encodePhrase(String text) {
+        int[] encoded = phrases.get(text);
+        if (encoded == null) {
+            encoded = encode(text);
+            int[] existing = phrases.putIfAbsent(text, encoded);
+            if (existing != null) {
+                encoded = existing;
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * Restores text encoded by {@link #encode(String)}.
+     */
+    public String decode(int[] encoded) {
+        StringBuilder builder = new StringBuilder(encoded.length * 8);
+        for (int i = 0; i < encoded.length; i++) {
+            if (spaceBefore(encoded, i)) {
+                builder.append(' ');
+            }
+            builder.append(token(encoded[i]));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The text of an encoded word or separator.
+     */
+    public String token(int code) {
+        return byId[isWord(code) ? code : ~code];
+    }
+
+    public static boolean isWord(int code) {
+        return code >= 0;
+    }
+
+    /**
+     * Whether the encoded text has an implied single space between positions {@code i - 1} and
+     * {@code i}.
+     */
+    public static boolean spaceBefore(int[] encoded, int i) {
+        return i > 0 && encoded[i - 1] >= 0 && encoded[i] >= 0;
+    }
+
+    /**
+     * The characters words are made of, as used for fuzzy matching.
+     */
+    public static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    private int id(String token) {
+        Integer id = ids.get(token);
+        if (id != null) {
+            return id;
+        }
+        synchronized (lock) {
+            id = ids.get(token);
+            if (id == null) {
+                id = size;
+                String[] table = id < byId.length ? byId : Arrays.copyOf(byId, id * 2);
+                table[id] = token;
+                // Publish the token before its id so no reader sees an id it cannot resolve.
+                byId = table;
+                size = id + 1;
+                ids.put(token, id);
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.vbot.navigator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GenerationPlanWriterTest {
+
+    /**
+     * The fast score formatting must agree with {@code String.format("%.2f")}, above all on the half-cent
+     * boundaries, including sums such as {@code 1.2 + 0.125} whose doubles sit just below the boundary.
+     */
+    @Test
+    void writeTwoDecimalsMatchesStringFormatOnHalfCentBoundaries() throws IOException {
+        for (int halfCents = -2_000; halfCents <= 200_000; halfCents++) {
+            double boundary = halfCents / 200.0;
+            assertTwoDecimals(boundary);
+            assertTwoDecimals(Math.nextUp(boundary));
+            assertTwoDecimals(Math.nextDown(boundary));
+            assertTwoDecimals(1.2 + boundary);
+            assertTwoDecimals(0.8 + boundary);
+        }
+    }
+
+    @Test
+    void writeTwoDecimalsMatchesStringFormatOnSpecialValues() throws IOException {
+        for (double value : new double[] {0, -0.0, 0.005, 1.325, 2.525, 1.575, 1e20, Double.NaN,
+                Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) {
+            assertTwoDecimals(value);
+        }
+    }
+
+    private static void assertTwoDecimals(double value) throws IOException {
+        StringWriter out = new StringWriter();
+        GenerationPlanWriter.writeTwoDecimals(out, value);
+        assertEquals(String.format(Locale.ROOT, "%.2f", value), out.toString(), () -> "writeTwoDecimals(" + value + ")");
+    }
+}